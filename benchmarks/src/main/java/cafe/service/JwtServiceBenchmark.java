@@ -0,0 +1,41 @@
+package cafe.service;
+
+import cafe.security.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private UserDetailsImpl userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "bXktc3VwZXItc2VjcmV0LWtleS0zMi1jaGFyYWN0ZXJzISE=");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        userDetails = UserDetailsImpl.build(ScheduleFixtures.user(1));
+        token = jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    // Путь JwtAuthenticationFilter: извлечение username и проверка подписи/срока
+    @Benchmark
+    public boolean validateToken() {
+        jwtService.extractUsername(token);
+        return jwtService.isTokenValid(token, userDetails);
+    }
+}
@@ -0,0 +1,83 @@
+package cafe.service;
+
+import cafe.dto.FullScheduleDto;
+import cafe.model.Cafe;
+import cafe.model.Role;
+import cafe.model.ScheduleEntry;
+import cafe.model.ScheduleMonth;
+import cafe.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Детерминированные данные для бенчмарков: N сотрудников x 31 день
+public final class ScheduleFixtures {
+
+    public static final YearMonth MONTH = YearMonth.of(2024, 5);
+
+    private ScheduleFixtures() {
+    }
+
+    public static Cafe cafe() {
+        return Cafe.builder().id(1L).name("Кофе Хаус Центр").address("ул. Ленина, 10").build();
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@cafe.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setFirstName("Имя" + id);
+        user.setLastName("Фамилия" + id);
+        user.setPosition(id % 3 == 0 ? "Менеджер" : "Бариста");
+        Role staff = new Role(Role.ERole.STAFF);
+        staff.setId(3L);
+        Role cafeAdmin = new Role(Role.ERole.CAFE_ADMIN);
+        cafeAdmin.setId(2L);
+        user.setRoles(id % 3 == 0 ? Set.of(staff, cafeAdmin) : Set.of(staff));
+        return user;
+    }
+
+    public static List<ScheduleEntry> entries(int employees) {
+        Cafe cafe = cafe();
+        ScheduleMonth month = new ScheduleMonth(MONTH, cafe);
+        month.setId(1L);
+        List<ScheduleEntry> entries = new ArrayList<>(employees * MONTH.lengthOfMonth());
+        long entryId = 1;
+        for (int u = 1; u <= employees; u++) {
+            User user = user(u);
+            for (int day = 1; day <= MONTH.lengthOfMonth(); day++) {
+                ScheduleEntry entry = new ScheduleEntry();
+                entry.setId(entryId++);
+                entry.setUser(user);
+                entry.setCafe(cafe);
+                entry.setScheduleMonth(month);
+                entry.setDate(MONTH.atDay(day));
+                int mod = (day + u) % 7;
+                entry.setStatus(mod < 5 ? ScheduleEntry.Status.WORKING
+                        : mod == 5 ? ScheduleEntry.Status.OFF : ScheduleEntry.Status.VACATION);
+                entry.setStartTime(LocalTime.of(8 + (u + day) % 3 * 4, 0));
+                entry.setEndTime(entry.getStartTime().plusHours(8));
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    public static List<LocalDate> monthDates() {
+        List<LocalDate> dates = new ArrayList<>(MONTH.lengthOfMonth());
+        for (int day = 1; day <= MONTH.lengthOfMonth(); day++) {
+            dates.add(MONTH.atDay(day));
+        }
+        return dates;
+    }
+
+    public static FullScheduleDto fullSchedule(int employees) {
+        return new FullScheduleDto(1L, false, ScheduleService.toUserSchedules(entries(employees)));
+    }
+}
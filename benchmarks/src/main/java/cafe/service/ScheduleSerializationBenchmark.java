@@ -0,0 +1,80 @@
+package cafe.service;
+
+import cafe.dto.FullScheduleDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Сериализация расписания кафе в JSON, CBOR и Smile (форматы ответов по Accept, BinaryFormatsConfig).
+// Размеры тела — без сжатия и с gzip (server.compression) — печатаются один раз на каждое значение employees
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleSerializationBenchmark {
+
+    @Param({"1", "20", "100", "200"})
+    private int employees;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private FullScheduleDto schedule;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonMapper = builder().build();
+        cborMapper = builder().factory(new CBORFactory()).build();
+        smileMapper = builder().factory(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()).build();
+        schedule = ScheduleFixtures.fullSchedule(employees);
+
+        System.out.printf("%nemployees=%d payload bytes (raw/gzip): json=%s cbor=%s smile=%s%n", employees,
+                sizes(jsonMapper), sizes(cborMapper), sizes(smileMapper));
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws Exception {
+        return jsonMapper.writeValueAsBytes(schedule);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(schedule);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws Exception {
+        return smileMapper.writeValueAsBytes(schedule);
+    }
+
+    // Сам builder оставляет даты числами; Spring Boot (JacksonAutoConfiguration) по умолчанию
+    // пишет их строками ISO-8601 — как в ответах приложения. Для каждого формата builder новый:
+    // factory() меняет его состояние
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+
+    private String sizes(ObjectMapper mapper) throws IOException {
+        byte[] raw = mapper.writeValueAsBytes(schedule);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(raw);
+        }
+        return raw.length + "/" + gzipped.size();
+    }
+}
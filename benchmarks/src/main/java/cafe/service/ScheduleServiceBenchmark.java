@@ -0,0 +1,52 @@
+package cafe.service;
+
+import cafe.dto.FullScheduleDto;
+import cafe.model.ScheduleEntry;
+import cafe.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleServiceBenchmark {
+
+    @Param({"1", "20", "100", "200"})
+    private int employees;
+
+    private List<ScheduleEntry> entries;
+    private User user;
+    private List<ScheduleEntry> userEntries;
+    private List<LocalDate> dates;
+
+    @Setup
+    public void setUp() {
+        entries = ScheduleFixtures.entries(employees);
+        userEntries = entries.subList(0, ScheduleFixtures.MONTH.lengthOfMonth());
+        user = userEntries.get(0).getUser();
+        dates = ScheduleFixtures.monthDates();
+    }
+
+    // Группировка и построение DTO из getAllSchedule
+    @Benchmark
+    public List<FullScheduleDto.UserSchedule> groupAllSchedule() {
+        return ScheduleService.toUserSchedules(entries);
+    }
+
+    @Benchmark
+    public FullScheduleDto.UserSchedule buildUserSchedule() {
+        return ScheduleService.buildUserSchedule(user, userEntries);
+    }
+
+    @Benchmark
+    public List<LocalDate> validateNoDuplicateDates() {
+        ScheduleService.validateNoDuplicateDates(dates);
+        return dates;
+    }
+}
@@ -0,0 +1,156 @@
+package cafe.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+// Профиль трафика: утренний шторм логинов, опрос ближайшей смены и новостей сотрудниками,
+// редактирование расписания менеджерами и утверждение месяца.
+// Пользователи и кафе — из генератора данных (профиль datagen приложения).
+public class CafeTrafficSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final int USERS = Integer.getInteger("dataset.users", 20000);
+    private static final int CAFES = Integer.getInteger("dataset.cafes", 80);
+    private static final String PASSWORD = System.getProperty("dataset.password", "staff123");
+    private static final long SEED = Long.getLong("seed", 42);
+
+    private static final int LOGIN_RATE = Integer.getInteger("load.loginsPerSec", 20);
+    private static final int STAFF = Integer.getInteger("load.staff", 500);
+    private static final int MANAGERS = Math.min(CAFES, Integer.getInteger("load.managers", 40));
+    private static final int APPROVALS = Math.min(CAFES, Integer.getInteger("load.approvals", 10));
+    private static final Duration RAMP = Duration.ofSeconds(Integer.getInteger("load.rampSec", 60));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.durationSec", 300));
+
+    private static final String CURRENT_MONTH = LocalDate.now().withDayOfMonth(1).toString();
+    private static final String NEXT_MONTH = LocalDate.now().withDayOfMonth(1).plusMonths(1).toString();
+
+    private static final String LOGIN = "POST /api/auth/login";
+    private static final String NEXT_SHIFT = "GET /api/schedule/my-next-shift";
+    private static final String NEWS = "GET /api/news/feed";
+    private static final String SCHEDULE_ALL = "GET /api/schedule/all";
+    private static final String SAVE_SCHEDULE_ALL = "POST /api/schedule/all";
+    private static final String APPROVE = "POST /api/schedule/approve";
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .acceptEncodingHeader("gzip");
+
+    private static String username(int index) {
+        return String.format("gen_user_%07d", index);
+    }
+
+    // Первые CAFES сгенерированных пользователей — менеджеры кафе «Кафе #0001»..., остальные — сотрудники
+    private static Iterator<Map<String, Object>> staffFeeder() {
+        Random random = new Random(SEED);
+        return Stream.generate(() -> Map.<String, Object>of(
+                "username", username(CAFES + 1 + random.nextInt(USERS - CAFES)))).iterator();
+    }
+
+    private static Iterator<Map<String, Object>> managerFeeder() {
+        AtomicInteger next = new AtomicInteger();
+        return Stream.generate(() -> {
+            int index = next.getAndIncrement() % CAFES + 1;
+            return Map.<String, Object>of(
+                    "username", username(index),
+                    "cafeName", String.format("Кафе #%04d", index));
+        }).iterator();
+    }
+
+    private static final ChainBuilder login = exec(http(LOGIN)
+            .post("/api/auth/login")
+            .body(StringBody("{\"username\":\"#{username}\",\"password\":\"" + PASSWORD + "\"}"))
+            .check(status().is(200), jsonPath("$.token").saveAs("token")));
+
+    private static final ChainBuilder resolveCafe = exec(http("GET /api/cafes")
+            .get("/api/cafes")
+            .header("Authorization", "Bearer #{token}")
+            .check(status().is(200), jsonPath("$[?(@.name == '#{cafeName}')].id").saveAs("cafeId")));
+
+    private final ScenarioBuilder loginStorm = scenario("Login storm")
+            .feed(staffFeeder())
+            .exec(login);
+
+    private final ScenarioBuilder staffPolling = scenario("Staff polling")
+            .feed(staffFeeder())
+            .exec(login)
+            .during(DURATION).on(
+                    exec(http(NEXT_SHIFT)
+                            .get("/api/schedule/my-next-shift")
+                            .header("Authorization", "Bearer #{token}")
+                            .check(status().is(200)))
+                            .pause(Duration.ofMillis(500), Duration.ofSeconds(2))
+                            .exec(http(NEWS)
+                                    .get("/api/news/feed")
+                                    .header("Authorization", "Bearer #{token}")
+                                    // Gatling кэширует ответ и повторяет запрос с If-None-Match
+                                    .check(status().in(200, 304)))
+                            .pause(Duration.ofSeconds(5), Duration.ofSeconds(20)));
+
+    private final ScenarioBuilder managerEditing = scenario("Manager editing")
+            .feed(managerFeeder())
+            .exec(login, resolveCafe)
+            .during(DURATION).on(
+                    exec(http(SCHEDULE_ALL)
+                            .get("/api/schedule/all?month=" + NEXT_MONTH + "&cafeId=#{cafeId}")
+                            .header("Authorization", "Bearer #{token}")
+                            .check(status().is(200), bodyString().saveAs("schedule")))
+                            .pause(Duration.ofSeconds(2), Duration.ofSeconds(10))
+                            .exec(http(SAVE_SCHEDULE_ALL)
+                                    .post("/api/schedule/all?month=" + NEXT_MONTH)
+                                    .header("Authorization", "Bearer #{token}")
+                                    .body(StringBody("#{schedule}"))
+                                    .check(status().is(200)))
+                            .pause(Duration.ofSeconds(10), Duration.ofSeconds(30)));
+
+    // Утверждение текущего месяца и снятие утверждения, чтобы прогон можно было повторять
+    private final ScenarioBuilder monthEndApproval = scenario("Month-end approval")
+            .feed(managerFeeder())
+            .exec(login, resolveCafe)
+            .exec(http(APPROVE)
+                    .post("/api/schedule/approve?month=" + CURRENT_MONTH + "&cafeId=#{cafeId}&approved=true")
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200)))
+            .pause(Duration.ofSeconds(5))
+            .exec(http(APPROVE)
+                    .post("/api/schedule/approve?month=" + CURRENT_MONTH + "&cafeId=#{cafeId}&approved=false")
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200)));
+
+    {
+        setUp(
+                loginStorm.injectOpen(
+                        rampUsersPerSec(1).to(LOGIN_RATE).during(RAMP),
+                        constantUsersPerSec(LOGIN_RATE).during(RAMP)),
+                staffPolling.injectOpen(rampUsers(STAFF).during(RAMP)),
+                managerEditing.injectOpen(rampUsers(MANAGERS).during(RAMP)),
+                monthEndApproval.injectOpen(nothingFor(RAMP), rampUsers(APPROVALS).during(RAMP))
+        ).protocols(httpProtocol)
+                // SLO, миллисекунды; переопределяются -Dslo.<имя>=...
+                .assertions(
+                        global().failedRequests().percent().lt(1.0),
+                        details(LOGIN).responseTime().percentile(95).lt(Integer.getInteger("slo.login.p95", 800)),
+                        details(NEXT_SHIFT).responseTime().percentile(95).lt(Integer.getInteger("slo.nextShift.p95", 100)),
+                        details(NEXT_SHIFT).responseTime().percentile(99).lt(Integer.getInteger("slo.nextShift.p99", 250)),
+                        details(NEWS).responseTime().percentile(95).lt(Integer.getInteger("slo.news.p95", 100)),
+                        details(NEWS).responseTime().percentile(99).lt(Integer.getInteger("slo.news.p99", 250)),
+                        details(SCHEDULE_ALL).responseTime().percentile(95).lt(Integer.getInteger("slo.scheduleAll.p95", 300)),
+                        details(SAVE_SCHEDULE_ALL).responseTime().percentile(95).lt(Integer.getInteger("slo.saveScheduleAll.p95", 1000)),
+                        details(APPROVE).responseTime().percentile(99).lt(Integer.getInteger("slo.approve.p99", 1000))
+                );
+    }
+}
@@ -0,0 +1,39 @@
+#!/bin/sh
+# Замер времени старта: время до "Started Application" и до первого успешного запроса.
+# Использование: scripts/measure-startup.sh <команда запуска приложения...>
+#   scripts/measure-startup.sh java -jar target/CafeProject-1.0-SNAPSHOT-exec.jar
+#   scripts/measure-startup.sh java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar
+# Переменные: URL (по умолчанию http://localhost:8081/actuator/health — порт управления), TIMEOUT_SEC (60)
+URL=${URL:-http://localhost:8081/actuator/health}
+TIMEOUT_SEC=${TIMEOUT_SEC:-60}
+LOG=$(mktemp)
+
+start=$(date +%s%N)
+"$@" > "$LOG" 2>&1 &
+pid=$!
+
+first_request=""
+while [ $(( ($(date +%s%N) - start) / 1000000000 )) -lt "$TIMEOUT_SEC" ]; do
+    if curl -sf -o /dev/null "$URL"; then
+        first_request=$(( ($(date +%s%N) - start) / 1000000 ))
+        break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "Application exited, log: $LOG" >&2
+        exit 1
+    fi
+    sleep 0.05
+done
+
+grep -o "Started Application in .*" "$LOG"
+if [ -n "$first_request" ]; then
+    echo "Time to first request: ${first_request} ms"
+else
+    echo "No successful request within ${TIMEOUT_SEC}s, log: $LOG" >&2
+fi
+rss=$(ps -o rss= -p "$pid" 2>/dev/null)
+[ -n "$rss" ] && echo "RSS after first request: $((rss / 1024)) MB"
+
+kill "$pid" 2>/dev/null
+wait "$pid" 2>/dev/null
+rm -f "$LOG"
@@ -0,0 +1,95 @@
+#!/bin/sh
+# Smoke-тест native-бинарника против локального Postgres: старт, логин, чтение/запись расписания, новости.
+# Использование: scripts/native-smoke-test.sh [команда запуска...]
+#   scripts/native-smoke-test.sh                      (по умолчанию target/cafe-schedule)
+#   scripts/native-smoke-test.sh java -jar target/CafeProject-1.0-SNAPSHOT-exec.jar
+# Переменные: DB_URL, DB_USER, DB_PASSWORD, PORT (8080), MANAGEMENT_PORT (8081), TIMEOUT_SEC (30)
+# Нужны демо-данные (admin/admin123, manager/manager123) — приложение запускается с app.demo-data.enabled=true
+DB_URL=${DB_URL:-jdbc:postgresql://localhost:5432/cafe_schedule}
+DB_USER=${DB_USER:-root}
+DB_PASSWORD=${DB_PASSWORD:-root}
+PORT=${PORT:-8080}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-8081}
+TIMEOUT_SEC=${TIMEOUT_SEC:-30}
+BASE=http://localhost:$PORT
+LOG=$(mktemp)
+MONTH=$(date +%Y-%m-01)
+
+[ $# -eq 0 ] && set -- target/cafe-schedule
+
+start=$(date +%s%N)
+"$@" --server.port="$PORT" \
+    --management.server.port="$MANAGEMENT_PORT" \
+    --spring.datasource.url="$DB_URL" \
+    --spring.datasource.username="$DB_USER" \
+    --spring.datasource.password="$DB_PASSWORD" \
+    --app.demo-data.enabled=true > "$LOG" 2>&1 &
+pid=$!
+
+fail() {
+    echo "FAIL: $1" >&2
+    echo "Application log: $LOG" >&2
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+    exit 1
+}
+
+started=""
+while [ $(( ($(date +%s%N) - start) / 1000000000 )) -lt "$TIMEOUT_SEC" ]; do
+    if curl -sf -o /dev/null "http://localhost:$MANAGEMENT_PORT/actuator/health"; then
+        started=$(( ($(date +%s%N) - start) / 1000000 ))
+        break
+    fi
+    kill -0 "$pid" 2>/dev/null || fail "application exited"
+    sleep 0.02
+done
+[ -n "$started" ] || fail "no healthy response within ${TIMEOUT_SEC}s"
+echo "Time to first request: ${started} ms"
+
+# request <метод> <путь> [токен] [тело] — печатает тело ответа, падает на не-2xx
+request() {
+    out=$(mktemp)
+    code=$(curl -s -o "$out" -w "%{http_code}" -X "$1" "$BASE$2" \
+        -H "Content-Type: application/json" \
+        ${3:+-H "Authorization: Bearer $3"} \
+        ${4:+--data-binary "$4"})
+    body=$(cat "$out")
+    rm -f "$out"
+    case "$code" in
+        2??) printf '%s' "$body" ;;
+        *) fail "$1 $2 -> HTTP $code $body" ;;
+    esac
+}
+
+login() {
+    request POST /api/auth/login "" "{\"username\":\"$1\",\"password\":\"$2\"}" \
+        | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+admin=$(login admin admin123) || exit 1
+[ -n "$admin" ] || fail "admin login returned no token"
+manager=$(login manager manager123) || exit 1
+[ -n "$manager" ] || fail "manager login returned no token"
+echo "OK login"
+
+news=$(request POST /api/news "$admin" '{"title":"Smoke test","content":"native smoke test"}' \
+    | sed -n 's/^{"id":\([0-9]*\).*/\1/p') || exit 1
+request GET /api/news/feed "$manager" | grep -q '"Smoke test"' || fail "news not in feed"
+request GET "/api/news/$news" "$manager" | grep -q '"native smoke test"' || fail "news content not readable"
+echo "OK news"
+
+cafe=$(request GET /api/cafes "$manager" | sed -n 's/^\[{"id":\([0-9]*\).*/\1/p') || exit 1
+[ -n "$cafe" ] || fail "no cafes"
+schedule=$(request GET "/api/schedule/all?month=$MONTH&cafeId=$cafe" "$manager") || exit 1
+request POST "/api/schedule/all?month=$MONTH" "$manager" "$schedule" > /dev/null || exit 1
+request GET "/api/schedule/my?month=$MONTH&cafeId=$cafe" "$manager" > /dev/null || exit 1
+request GET /api/schedule/my-next-shift "$manager" > /dev/null || exit 1
+echo "OK schedule"
+
+rss=$(ps -o rss= -p "$pid" 2>/dev/null)
+[ -n "$rss" ] && echo "RSS: $((rss / 1024)) MB"
+
+kill "$pid" 2>/dev/null
+wait "$pid" 2>/dev/null
+rm -f "$LOG"
+echo "PASS"
@@ -0,0 +1,47 @@
+#!/bin/sh
+# Сквозная проверка форматов ответа на запущенном приложении: JSON, CBOR и Smile, без сжатия и с gzip.
+# Для каждого эндпоинта и формата: байты по сети и медиана ser;dur (сериализация, мс) из Server-Timing.
+# Затраты CPU на сериализацию точнее меряет JMH: ScheduleSerializationBenchmark в модуле benchmarks.
+# Использование: scripts/serialization-benchmark.sh
+# Переменные: BASE (http://localhost:8080), TOKEN (иначе вход под LOGIN/PASSWORD — manager/manager123),
+#   CAFE_ID (1), MONTH (первое число месяца, по умолчанию текущий), N — запросов на вариант (20)
+BASE=${BASE:-http://localhost:8080}
+LOGIN=${LOGIN:-manager}
+PASSWORD=${PASSWORD:-manager123}
+CAFE_ID=${CAFE_ID:-1}
+MONTH=${MONTH:-$(date +%Y-%m-01)}
+N=${N:-20}
+
+if [ -z "$TOKEN" ]; then
+    TOKEN=$(curl -sf -H "Content-Type: application/json" \
+        -d "{\"username\":\"$LOGIN\",\"password\":\"$PASSWORD\"}" "$BASE/api/auth/login" \
+        | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+    if [ -z "$TOKEN" ]; then
+        echo "Login failed" >&2
+        exit 1
+    fi
+fi
+
+HEADERS=$(mktemp)
+trap 'rm -f "$HEADERS"' EXIT
+
+printf '%-45s %-28s %-9s %10s %10s\n' "endpoint" "format" "encoding" "bytes" "ser ms"
+for path in "/api/schedule/all?cafeId=$CAFE_ID&month=$MONTH" "/api/schedule/changes?since=0" "/api/sync/bundle"; do
+    for format in application/json application/cbor application/x-jackson-smile; do
+        for encoding in identity gzip; do
+            bytes=""
+            timings=""
+            i=0
+            while [ "$i" -lt "$N" ]; do
+                bytes=$(curl -s -o /dev/null -D "$HEADERS" -w '%{size_download}' \
+                    -H "Authorization: Bearer $TOKEN" -H "Accept: $format" -H "Accept-Encoding: $encoding" \
+                    "$BASE$path")
+                ser=$(tr -d '\r' < "$HEADERS" | sed -n 's/^[Ss]erver-[Tt]iming:.*ser;dur=\([0-9.]*\).*/\1/p')
+                timings="$timings $ser"
+                i=$((i + 1))
+            done
+            median=$(echo "$timings" | tr ' ' '\n' | grep . | sort -n | awk '{ v[NR] = $1 } END { print NR ? v[int((NR + 1) / 2)] : "-" }')
+            printf '%-45s %-28s %-9s %10s %10s\n' "${path%%\?*}" "$format" "$encoding" "$bytes" "$median"
+        done
+    done
+done
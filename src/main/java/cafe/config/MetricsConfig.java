@@ -0,0 +1,57 @@
+package cafe.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.aop.TimedAspect;
+import cafe.service.CafeCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final String CAFE_ID_PARAM = "cafeId";
+    private static final String CAFE_ID_TAG = "cafe.id";
+
+    @Autowired
+    private CafeCatalog cafeCatalog;
+
+    // Поддержка @Timed на сервисах
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Добавляет тег cafe.id к http.server.requests для эндпоинтов с параметром cafeId.
+    // Только существующие кафе и успешные ответы: иначе число серий растёт от произвольных значений в запросе
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(cafeId(context));
+            }
+        };
+    }
+
+    private KeyValue cafeId(ServerRequestObservationContext context) {
+        HttpServletResponse response = context.getResponse();
+        String cafeId = context.getCarrier().getParameter(CAFE_ID_PARAM);
+        if (response == null || context.getError() != null || response.getStatus() / 100 != 2
+                || cafeId == null || cafeId.isEmpty() || cafeId.length() > 18
+                || !cafeId.chars().allMatch(Character::isDigit)) {
+            return KeyValue.of(CAFE_ID_TAG, "none");
+        }
+        Long id = Long.valueOf(cafeId);
+        if (!cafeCatalog.exists(id)) {
+            return KeyValue.of(CAFE_ID_TAG, "none");
+        }
+        return KeyValue.of(CAFE_ID_TAG, id.toString());
+    }
+}
@@ -0,0 +1,118 @@
+package cafe.config;
+
+import cafe.controller.ProfileController;
+import cafe.dto.BulkUserResultDto;
+import cafe.dto.CafeDto;
+import cafe.dto.CoverageDto;
+import cafe.dto.ErrorResponse;
+import cafe.dto.FullScheduleDto;
+import cafe.dto.HomeDto;
+import cafe.dto.JwtResponse;
+import cafe.dto.LoginRequest;
+import cafe.dto.MyScheduleDto;
+import cafe.dto.NewsDto;
+import cafe.dto.NewsFeedDto;
+import cafe.dto.NewsSearchHitDto;
+import cafe.dto.NewsSearchPageDto;
+import cafe.dto.NewsSummaryDto;
+import cafe.dto.NextShiftDto;
+import cafe.dto.PurgeJobDto;
+import cafe.dto.ScheduleChangeDto;
+import cafe.dto.ScheduleChangesDto;
+import cafe.dto.ScheduleEntryDto;
+import cafe.dto.ScheduleGridDto;
+import cafe.dto.ScheduleSummaryDto;
+import cafe.dto.SyncBundleDto;
+import cafe.dto.UserDto;
+import cafe.dto.UserPageDto;
+import cafe.dto.UserScheduleDto;
+import cafe.dto.UserSummaryDto;
+import cafe.model.Cafe;
+import cafe.model.News;
+import cafe.model.Role;
+import cafe.model.ScheduleEntry;
+import cafe.model.ScheduleMonth;
+import cafe.model.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.NativeDetector;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// Подсказки для сборки native-image (mvn -Pnative native:compile).
+// Всё, что создаётся через рефлексию и не выводится Spring AOT автоматически.
+@Configuration
+@ImportRuntimeHints(NativeConfig.AppRuntimeHints.class)
+public class NativeConfig {
+
+    // В native-образе прокси нельзя генерировать в рантайме: ленивая загрузка работает
+    // через bytecode enhancement при сборке (hibernate-enhance-maven-plugin в профиле native)
+    @Bean
+    public HibernatePropertiesCustomizer nativeBytecodeProviderCustomizer() {
+        return properties -> {
+            if (NativeDetector.inNativeImage()) {
+                properties.put("hibernate.bytecode.provider", "none");
+            }
+        };
+    }
+
+    static class AppRuntimeHints implements RuntimeHintsRegistrar {
+
+        // Сериализуются Jackson'ом: тела запросов/ответов, в т.ч. за ResponseEntity<?>, и сущности из UserController
+        private static final Class<?>[] JSON_TYPES = {
+                BulkUserResultDto.class, CafeDto.class, CoverageDto.class, ErrorResponse.class, FullScheduleDto.class,
+                HomeDto.class, JwtResponse.class, LoginRequest.class, MyScheduleDto.class, NewsDto.class,
+                NewsFeedDto.class, NewsSearchHitDto.class, NewsSearchPageDto.class, NewsSummaryDto.class,
+                NextShiftDto.class, PurgeJobDto.class, ScheduleChangeDto.class, ScheduleChangesDto.class,
+                ScheduleEntryDto.class, ScheduleGridDto.class, ScheduleSummaryDto.class, SyncBundleDto.class,
+                UserDto.class, UserPageDto.class, UserScheduleDto.class, UserSummaryDto.class,
+                ProfileController.CurrentUserResponse.class, User.class, Role.class, Cafe.class, News.class,
+                ScheduleEntry.class, ScheduleMonth.class
+        };
+
+        // jjwt 0.11 находит реализации по имени класса (Classes.newInstance) и через ServiceLoader
+        private static final String[] JJWT_TYPES = {
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+                "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+            // Настройки регионов кэша второго уровня читает Caffeine (Typesafe Config) из classpath
+            hints.resources().registerPattern("application.conf");
+            hints.resources().registerPattern("reference.conf");
+
+            // Обёртки соединений и запросов StatementCountingDataSource
+            hints.proxies().registerJdkProxy(Connection.class);
+            hints.proxies().registerJdkProxy(Statement.class);
+            hints.proxies().registerJdkProxy(PreparedStatement.class);
+            hints.proxies().registerJdkProxy(CallableStatement.class);
+        }
+    }
+}
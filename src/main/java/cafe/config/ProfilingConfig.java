@@ -0,0 +1,71 @@
+package cafe.config;
+
+import cafe.profiling.ProfilingBinaryJacksonHttpMessageConverter;
+import cafe.profiling.ProfilingJacksonHttpMessageConverter;
+import cafe.profiling.StatementBudgetInterceptor;
+import cafe.profiling.StatementCountingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+public class ProfilingConfig implements WebMvcConfigurer {
+
+    @Value("${app.profiling.enabled:true}")
+    private boolean enabled;
+
+    // Для интеграционных тестов (профиль test): лишний запрос не выполняется, транзакция откатывается, ответ 500
+    @Value("${app.profiling.enforce-statement-budget:false}")
+    private boolean enforceStatementBudget;
+
+    // static: постпроцессор создаётся раньше остальных бинов конфигурации
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor(
+            @Value("${app.profiling.enabled:true}") boolean enabled) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (enabled) {
+            registry.addInterceptor(new StatementBudgetInterceptor(enforceStatementBudget));
+        }
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < converters.size(); i++) {
+            Class<?> type = converters.get(i).getClass();
+            if (type == MappingJackson2HttpMessageConverter.class) {
+                MappingJackson2HttpMessageConverter jackson = (MappingJackson2HttpMessageConverter) converters.get(i);
+                converters.set(i, new ProfilingJacksonHttpMessageConverter(jackson.getObjectMapper()));
+            } else if (type == MappingJackson2CborHttpMessageConverter.class || type == MappingJackson2SmileHttpMessageConverter.class) {
+                AbstractJackson2HttpMessageConverter jackson = (AbstractJackson2HttpMessageConverter) converters.get(i);
+                converters.set(i, new ProfilingBinaryJacksonHttpMessageConverter(jackson.getObjectMapper(),
+                        jackson.getSupportedMediaTypes()));
+            }
+        }
+    }
+}
@@ -3,7 +3,9 @@ package cafe.config;
 import cafe.security.JwtAuthEntryPoint;
 import cafe.security.JwtAuthenticationFilter;
 import cafe.service.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +31,12 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Value("${management.server.port:${server.port:8080}}")
+    private int managementPort;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
@@ -59,6 +67,10 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthEntryPoint))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Асинхронное завершение SSE (/api/schedule/stream) и страница ошибки после обрыва:
+                        // запрос уже проверен при подключении
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR, DispatcherType.INCLUDE).permitAll()
+
                         // === Публичные эндпоинты (без авторизации) ===
                         .requestMatchers("/api/auth/**").permitAll()
 
@@ -70,6 +82,14 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-resources/**").permitAll()
                         .requestMatchers("/webjars/**").permitAll()
 
+                        // === Actuator: health открыт; scrape Prometheus — без токена, но только на отдельном
+                        // порту управления (management.server.*), закрытом от внешней сети; остальное — USER_ADMIN ===
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers(request -> managementPort != serverPort
+                                && request.getLocalPort() == managementPort
+                                && request.getRequestURI().equals("/actuator/prometheus")).permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("USER_ADMIN")
+
                         // === Защищённые эндпоинты ===
                         .requestMatchers("/api/schedule/**").authenticated()
                         .requestMatchers("/api/users/**").authenticated()
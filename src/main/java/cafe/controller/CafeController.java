@@ -1,6 +1,8 @@
 package cafe.controller;
 
 import cafe.dto.CafeDto;
+import cafe.dto.PurgeJobDto;
+import cafe.profiling.StatementBudget;
 import cafe.service.CafeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @Tag(name = "Cafe", description = "Эндпоинты для управления кафе")
@@ -35,6 +38,7 @@ public class CafeController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = CafeDto.class))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
     })
+    @StatementBudget(3)
     @GetMapping
     public ResponseEntity<List<CafeDto>> getAllCafes() {
         return ResponseEntity.ok(cafeService.getAllCafes());
@@ -62,12 +66,13 @@ public class CafeController {
 
     @Operation(
             summary = "Удалить кафе",
-            description = "Удаляет кафе по ID. Доступно только администраторам."
+            description = "Сразу скрывает кафе и ставит фоновое задание на удаление его расписания. " +
+                    "Возвращает 202 и задание, прогресс — GET /api/jobs/{id}. Доступно только администраторам."
     )
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('USER_ADMIN')")
-    public ResponseEntity<Void> deleteCafe(@PathVariable Long id) {
-        cafeService.deleteCafe(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<PurgeJobDto> deleteCafe(@PathVariable Long id) {
+        PurgeJobDto job = cafeService.deleteCafe(id);
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
     }
 }
@@ -0,0 +1,48 @@
+package cafe.controller;
+
+import cafe.dto.HomeDto;
+import cafe.profiling.StatementBudget;
+import cafe.service.HomeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Home", description = "Главный экран приложения")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/home")
+@SecurityRequirement(name = "bearerAuth")
+public class HomeController {
+
+    @Autowired
+    private HomeService homeService;
+
+    @Operation(
+            summary = "Данные главного экрана",
+            description = "Профиль, ближайшая смена, статус утверждения расписания текущего месяца в каждом кафе пользователя "
+                    + "и первая страница ленты новостей одним запросом. Части загружаются параллельно; часть, не успевшая "
+                    + "за свой таймаут, возвращается как null и перечисляется в `unavailable`."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Данные получены (возможно, частично)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = HomeDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
+    })
+    @StatementBudget(2)
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<HomeDto> getHome() {
+        return ResponseEntity.ok(homeService.getHome());
+    }
+}
@@ -0,0 +1,69 @@
+package cafe.controller;
+
+import cafe.dto.PurgeJobDto;
+import cafe.profiling.StatementBudget;
+import cafe.service.PurgeJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Jobs", description = "Статус и перезапуск фоновых заданий удаления")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/jobs")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasAuthority('USER_ADMIN')")
+public class JobController {
+
+    @Autowired
+    private PurgeJobService purgeJobService;
+
+    @Operation(
+            summary = "Статус задания удаления",
+            description = "Возвращает статус и прогресс (удалено смен из общего числа) задания, созданного при удалении кафе или пользователя. Только `USER_ADMIN`."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статус задания",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurgeJobDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    })
+    @StatementBudget(3)
+    @GetMapping("/{id}")
+    public ResponseEntity<PurgeJobDto> getJob(
+            @Parameter(description = "ID задания", required = true, example = "1", in = ParameterIn.PATH)
+            @PathVariable Long id) {
+        return ResponseEntity.ok(purgeJobService.getJob(id));
+    }
+
+    @Operation(
+            summary = "Перезапустить задание удаления",
+            description = "Возвращает в очередь задание в статусе `FAILED`, исчерпавшее автоматические повторы. " +
+                    "Задание продолжает с места остановки, счётчик попыток сбрасывается. Только `USER_ADMIN`."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Задание поставлено в очередь",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurgeJobDto.class))),
+            @ApiResponse(responseCode = "400", description = "Задание не в статусе FAILED"),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    })
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<PurgeJobDto> retryJob(
+            @Parameter(description = "ID задания", required = true, example = "1", in = ParameterIn.PATH)
+            @PathVariable Long id) {
+        return ResponseEntity.ok(purgeJobService.retry(id));
+    }
+}
@@ -1,6 +1,9 @@
 package cafe.controller;
 
 import cafe.dto.NewsDto;
+import cafe.dto.NewsFeedDto;
+import cafe.dto.NewsSearchPageDto;
+import cafe.profiling.StatementBudget;
 import cafe.service.NewsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +16,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +31,10 @@ import java.util.List;
 @PreAuthorize("hasAuthority('USER_ADMIN')")
 public class NewsController {
 
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_PAGE = 20;
+
     @Autowired
     private NewsService newsService;
 
@@ -46,9 +54,69 @@ public class NewsController {
         return ResponseEntity.ok(newsService.getAll());
     }
 
+    @Operation(
+            summary = "Лента новостей",
+            description = "Страница ленты: заголовок, анонс и дата, новые сверху. Следующая страница — с `cursor = nextCursor`. "
+                    + "Первая страница отдаётся из памяти с ETag (If-None-Match -> 304). Доступно всем аутентифицированным пользователям."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница ленты",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = NewsFeedDto.class))),
+            @ApiResponse(responseCode = "304", description = "Первая страница не изменилась"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор"),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
+    })
+    @StatementBudget(2)
+    @GetMapping("/feed")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<NewsFeedDto> getFeed(
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы", in = ParameterIn.QUERY)
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (1-" + MAX_FEED_PAGE_SIZE + ")", example = "20", in = ParameterIn.QUERY)
+            @RequestParam(defaultValue = "" + NewsService.FEED_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        if ((cursor == null || cursor.isBlank()) && pageSize == NewsService.FEED_PAGE_SIZE) {
+            NewsService.FeedSnapshot snapshot = newsService.getFeedFirstPage();
+            // При совпадении If-None-Match Spring сам ответит 304 без тела
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(snapshot.etag())
+                    .body(snapshot.page());
+        }
+        return ResponseEntity.ok(newsService.getFeed(cursor, pageSize));
+    }
+
+    @Operation(
+            summary = "Поиск по новостям",
+            description = "Полнотекстовый поиск по заголовку и тексту (русская морфология, синтаксис как в поисковиках: "
+                    + "\"точная фраза\", -исключить, or). Результаты упорядочены по релевантности, "
+                    + "фрагменты экранированы как HTML, найденные слова выделены `<mark>`. Доступно администраторам."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница результатов",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = NewsSearchPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Пустой запрос или некорректные параметры"),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    @StatementBudget(3)
+    @GetMapping("/search")
+    public ResponseEntity<NewsSearchPageDto> search(
+            @Parameter(description = "Поисковый запрос", required = true, example = "график отпусков", in = ParameterIn.QUERY)
+            @RequestParam String q,
+            @Parameter(description = "Номер страницы (с 0, не больше " + MAX_SEARCH_PAGE + ")", example = "0", in = ParameterIn.QUERY)
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы (1-" + MAX_SEARCH_PAGE_SIZE + ")", example = "20", in = ParameterIn.QUERY)
+            @RequestParam(defaultValue = "20") int size) {
+        int pageNumber = Math.max(0, Math.min(page, MAX_SEARCH_PAGE));
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        return ResponseEntity.ok(newsService.search(q, pageNumber, pageSize));
+    }
+
     @Operation(
             summary = "Получить опубликованные новости",
-            description = "Возвращает все новости для отображения на главной странице. Доступно всем аутентифицированным пользователям."
+            description = "Возвращает все новости целиком. Устарело: для главной страницы используйте `/api/news/feed`.",
+            deprecated = true
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список новостей",
@@ -56,6 +124,7 @@ public class NewsController {
                             schema = @Schema(implementation = NewsDto.class, type = "array"))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
     })
+    @StatementBudget(3)
     @GetMapping("/published")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<NewsDto>> getPublished() {
@@ -64,16 +133,17 @@ public class NewsController {
 
     @Operation(
             summary = "Получить новость по ID",
-            description = "Возвращает одну новость. Доступно администраторам."
+            description = "Возвращает новость целиком (полный текст к анонсу из ленты). Доступно всем аутентифицированным пользователям."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Новость найдена",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = NewsDto.class))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
-            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
             @ApiResponse(responseCode = "404", description = "Новость не найдена")
     })
+    @StatementBudget(3)
     @GetMapping("/{id}")
+    @PreAuthorize("isAuthenticated()")
     public ResponseEntity<NewsDto> getById(
             @Parameter(description = "ID новости", required = true, example = "1", in = ParameterIn.PATH)
             @PathVariable Long id) {
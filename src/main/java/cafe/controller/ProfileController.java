@@ -1,5 +1,6 @@
 package cafe.controller;
 
+import cafe.profiling.StatementBudget;
 import cafe.security.UserDetailsImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -34,6 +35,7 @@ public class ProfileController {
                             schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = CurrentUserResponse.class))),
             @ApiResponse(responseCode = "401", description = "Пользователь не аутентифицирован")
     })
+    @StatementBudget(2)
     @GetMapping
     public ResponseEntity<?> getCurrentUser(Authentication authentication) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
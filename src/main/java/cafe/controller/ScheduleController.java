@@ -1,9 +1,19 @@
 package cafe.controller;
 
+import cafe.dto.CoverageDto;
 import cafe.dto.FullScheduleDto;
 import cafe.dto.MyScheduleDto;
 import cafe.dto.NextShiftDto;
+import cafe.dto.ScheduleChangeDto;
+import cafe.dto.ScheduleChangesDto;
+import cafe.dto.ScheduleGridDto;
+import cafe.dto.ScheduleSummaryDto;
+import cafe.profiling.StatementBudget;
+import cafe.service.CoverageService;
+import cafe.service.ScheduleGridService;
 import cafe.service.ScheduleService;
+import cafe.service.ScheduleStreamService;
+import cafe.service.ScheduleSummaryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -16,11 +26,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 
 @Tag(name = "Schedule", description = "Эндпоинты для управления расписанием сотрудников кафе")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -29,8 +43,18 @@ import java.time.LocalDate;
 @SecurityRequirement(name = "bearerAuth")
 public class ScheduleController {
 
+    private static final int MAX_CHANGES_PAGE_SIZE = 5000;
+
     @Autowired
     private ScheduleService scheduleService;
+    @Autowired
+    private ScheduleStreamService scheduleStreamService;
+    @Autowired
+    private ScheduleGridService scheduleGridService;
+    @Autowired
+    private ScheduleSummaryService scheduleSummaryService;
+    @Autowired
+    private CoverageService coverageService;
 
     @Operation(
             summary = "Получить моё расписание",
@@ -40,11 +64,12 @@ public class ScheduleController {
             @ApiResponse(responseCode = "200", description = "Расписание получено",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = FullScheduleDto.class))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
-            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
             @ApiResponse(responseCode = "404", description = "Кафе не найдено")
     })
+    @StatementBudget(6)
     @GetMapping("/my")
-    @PreAuthorize("hasAuthority('STAFF') or hasAuthority('CAFE_ADMIN')")
+    @PreAuthorize("(hasAuthority('STAFF') or hasAuthority('CAFE_ADMIN')) and @cafeAccess.canWrite(authentication, #cafeId)")
     public ResponseEntity<FullScheduleDto> getMySchedule(
             @Parameter(description = "Месяц в формате YYYY-MM-DD (например, 2024-05-01)",
                     required = true, example = "2024-05-01", in = ParameterIn.QUERY)
@@ -68,7 +93,7 @@ public class ScheduleController {
             @ApiResponse(responseCode = "409", description = "Расписание уже утверждено и заблокировано")
     })
     @PostMapping("/my")
-    @PreAuthorize("hasAuthority('STAFF') or hasAuthority('CAFE_ADMIN')")
+    @PreAuthorize("(hasAuthority('STAFF') or hasAuthority('CAFE_ADMIN')) and @cafeAccess.canWrite(authentication, #dto.cafeId)")
     public ResponseEntity<FullScheduleDto> saveMySchedule(
             @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
@@ -82,17 +107,18 @@ public class ScheduleController {
 
     @Operation(
             summary = "Получить полное расписание кафе",
-            description = "Возвращает расписание всех сотрудников указанного кафе за месяц. Только `CAFE_ADMIN` или `USER_ADMIN`."
+            description = "Возвращает расписание всех сотрудников указанного кафе за месяц. " +
+                    "`USER_ADMIN` — любое кафе, `CAFE_ADMIN` и `STAFF` — только свои."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Расписание получено",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = FullScheduleDto.class))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
-            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
             @ApiResponse(responseCode = "404", description = "Кафе не найдено")
     })
     @GetMapping("/all")
-    @PreAuthorize("hasAuthority('CAFE_ADMIN') or hasAuthority('USER_ADMIN') or hasAuthority('STAFF')")
+    @PreAuthorize("(hasAuthority('CAFE_ADMIN') or hasAuthority('USER_ADMIN') or hasAuthority('STAFF')) and @cafeAccess.canRead(authentication, #cafeId)")
     public ResponseEntity<FullScheduleDto> getAllSchedule(
             @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
@@ -101,6 +127,99 @@ public class ScheduleController {
         return ResponseEntity.ok(scheduleService.getAllSchedule(month, cafeId));
     }
 
+    @Operation(
+            summary = "Расписание кафе в виде таблицы",
+            description = "То же, что `/all`, в компактном виде для таблицы «сотрудник × день»: список сотрудников, " +
+                    "коды статусов ячеек построчно (сотрудник за сотрудником, дни 1..`days`), сжатые парами " +
+                    "[код, число ячеек подряд], и минуты начала и конца для каждой ячейки со сменой. " +
+                    "Код статуса i — `statuses[i - 1]`, 0 — смены нет."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Расписание получено",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleGridDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
+            @ApiResponse(responseCode = "404", description = "Кафе не найдено")
+    })
+    @GetMapping("/grid")
+    @PreAuthorize("(hasAuthority('CAFE_ADMIN') or hasAuthority('USER_ADMIN') or hasAuthority('STAFF')) and @cafeAccess.canRead(authentication, #cafeId)")
+    public ResponseEntity<ScheduleGridDto> getScheduleGrid(
+            @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
+            @Parameter(description = "ID кафе", required = true, example = "1", in = ParameterIn.QUERY)
+            @RequestParam Long cafeId) {
+        return ResponseEntity.ok(scheduleGridService.getGrid(month, cafeId));
+    }
+
+    @Operation(
+            summary = "Итоги месяца по сотрудникам кафе",
+            description = "Для каждого сотрудника: число рабочих смен, отработанные минуты, выходные, дни отпуска " +
+                    "и больничного за месяц. Итоги обновляются при каждом сохранении расписания. " +
+                    "`USER_ADMIN` — любое кафе, `CAFE_ADMIN` — только свои."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Итоги получены",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleSummaryDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
+            @ApiResponse(responseCode = "404", description = "Кафе не найдено")
+    })
+    @GetMapping("/summary")
+    @PreAuthorize("(hasAuthority('CAFE_ADMIN') or hasAuthority('USER_ADMIN')) and @cafeAccess.canRead(authentication, #cafeId)")
+    public ResponseEntity<List<ScheduleSummaryDto>> getCafeSummary(
+            @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
+            @Parameter(description = "ID кафе", required = true, example = "1", in = ParameterIn.QUERY)
+            @RequestParam Long cafeId) {
+        return ResponseEntity.ok(scheduleSummaryService.getCafeMonth(cafeId, YearMonth.from(month)));
+    }
+
+    @Operation(
+            summary = "Итоги сотрудника за год",
+            description = "Итоги по месяцам и кафе за год. Свои итоги доступны всем, `USER_ADMIN` — итоги любого " +
+                    "сотрудника, `CAFE_ADMIN` — только по своим кафе."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Итоги получены",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleSummaryDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Нет доступа к итогам сотрудника")
+    })
+    @GetMapping("/summary/user")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ScheduleSummaryDto>> getUserSummary(
+            @Parameter(description = "ID сотрудника", required = true, example = "3", in = ParameterIn.QUERY)
+            @RequestParam Long userId,
+            @Parameter(description = "Год", required = true, example = "2024", in = ParameterIn.QUERY)
+            @RequestParam int year) {
+        return ResponseEntity.ok(scheduleSummaryService.getUserYear(userId, year));
+    }
+
+    @Operation(
+            summary = "Укомплектованность кафе за месяц",
+            description = "Для каждого дня и часа — число сотрудников в статусе `WORKING`, всего и по должностям, " +
+                    "и интервалы в часы работы кафе, когда на смене меньше `minStaff` сотрудников. Без `cafeId` — " +
+                    "по всем доступным кафе: `USER_ADMIN` — все, `CAFE_ADMIN` — свои. Подсчёт по утверждённым месяцам кэшируется."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Данные получены",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CoverageDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
+            @ApiResponse(responseCode = "404", description = "Кафе не найдено")
+    })
+    @GetMapping("/coverage")
+    @PreAuthorize("(hasAuthority('CAFE_ADMIN') or hasAuthority('USER_ADMIN')) and (#cafeId == null or @cafeAccess.canRead(authentication, #cafeId))")
+    public ResponseEntity<CoverageDto> getCoverage(
+            @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
+            @Parameter(description = "ID кафе; без него — все доступные кафе", example = "1", in = ParameterIn.QUERY)
+            @RequestParam(required = false) Long cafeId,
+            @Parameter(description = "Минимум сотрудников на смене в час (по умолчанию из настроек)", example = "2", in = ParameterIn.QUERY)
+            @RequestParam(required = false) Integer minStaff) {
+        return ResponseEntity.ok(coverageService.getCoverage(YearMonth.from(month), cafeId, minStaff));
+    }
+
     @Operation(
             summary = "Сохранить полное расписание кафе",
             description = "Массовое сохранение расписания для всех сотрудников кафе. Только `CAFE_ADMIN`."
@@ -110,11 +229,11 @@ public class ScheduleController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = FullScheduleDto.class))),
             @ApiResponse(responseCode = "400", description = "Некорректные данные"),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
-            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
             @ApiResponse(responseCode = "409", description = "Расписание уже утверждено")
     })
     @PostMapping("/all")
-    @PreAuthorize("hasAuthority('CAFE_ADMIN')")
+    @PreAuthorize("hasAuthority('CAFE_ADMIN') and @cafeAccess.canWrite(authentication, #dto.cafeId)")
     public ResponseEntity<FullScheduleDto> saveAllSchedule(
             @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
@@ -134,11 +253,11 @@ public class ScheduleController {
             @ApiResponse(responseCode = "200", description = "Статус изменён",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = FullScheduleDto.class))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
-            @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав или нет доступа к кафе"),
             @ApiResponse(responseCode = "404", description = "Кафе или месяц не найдены")
     })
     @PostMapping("/approve")
-    @PreAuthorize("hasAuthority('CAFE_ADMIN')")
+    @PreAuthorize("hasAuthority('CAFE_ADMIN') and @cafeAccess.canWrite(authentication, #cafeId)")
     public ResponseEntity<FullScheduleDto> approveSchedule(
             @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
@@ -156,9 +275,12 @@ public class ScheduleController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Статус получен",
                     content = @Content(mediaType = "application/json", schema = @Schema(type = "boolean"))),
+            @ApiResponse(responseCode = "403", description = "Нет доступа к кафе"),
             @ApiResponse(responseCode = "404", description = "Кафе или месяц не найдены")
     })
+    @StatementBudget(4)
     @GetMapping("/status")
+    @PreAuthorize("@cafeAccess.canRead(authentication, #cafeId)")
     public ResponseEntity<Boolean> getApprovalStatus(
             @Parameter(description = "Месяц в формате YYYY-MM-DD", required = true, example = "2024-05-01", in = ParameterIn.QUERY)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate month,
@@ -167,6 +289,53 @@ public class ScheduleController {
         return ResponseEntity.ok(scheduleService.isApproved(month, cafeId));
     }
 
+    @Operation(
+            summary = "Поток изменений расписания кафе (SSE)",
+            description = "Server-Sent Events: после каждого сохранённого изменения расписания или статуса утверждения " +
+                    "приходит событие `schedule` с месяцем, версией, id затронутых сотрудников и статусом утверждения. " +
+                    "Каждые 15 секунд — комментарий-heartbeat. Клиент, не успевающий читать, отключается и должен " +
+                    "переподключиться и перечитать расписание."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток открыт",
+                    content = @Content(mediaType = "text/event-stream", schema = @Schema(implementation = ScheduleChangeDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Нет доступа к кафе"),
+            @ApiResponse(responseCode = "404", description = "Кафе не найдено")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("@cafeAccess.canRead(authentication, #cafeId)")
+    public SseEmitter streamScheduleChanges(
+            @Parameter(description = "ID кафе", required = true, example = "1", in = ParameterIn.QUERY)
+            @RequestParam Long cafeId) {
+        return scheduleStreamService.subscribe(cafeId);
+    }
+
+    @Operation(
+            summary = "Изменения смен с последней синхронизации",
+            description = "Инкрементальная синхронизация для мобильных клиентов. Администратор кафе получает изменения " +
+                    "по всем своим кафе, остальные — только свои смены. Для каждой (кафе, сотрудник, дата) возвращается " +
+                    "только последнее состояние; `deleted = true` — смены больше нет. Первый запрос — с `since=0` " +
+                    "(всё текущее расписание), следующие — с `nextSince` из предыдущего ответа. При `hasMore` запросить " +
+                    "следующую порцию сразу; при `resetRequired` удалить локальные данные и начать с `since=0`."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Изменения получены",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScheduleChangesDto.class))),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
+    })
+    @GetMapping("/changes")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ScheduleChangesDto> getChanges(
+            @Parameter(description = "Токен синхронизации (nextSince из предыдущего ответа), 0 — полная загрузка",
+                    example = "0", in = ParameterIn.QUERY)
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Максимум изменений в ответе (1–5000)", example = "500", in = ParameterIn.QUERY)
+            @RequestParam(defaultValue = "500") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE_SIZE));
+        return ResponseEntity.ok(scheduleService.getChanges(Math.max(0, since), pageSize));
+    }
+
     @Operation(
             summary = "Получить ближайшую смену текущего пользователя",
             description = "Ищет ближайшую будущую смену (status = WORKING) текущего пользователя по всем его кафе. " +
@@ -176,6 +345,7 @@ public class ScheduleController {
             @ApiResponse(responseCode = "200", description = "Смена найдена, либо null"),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
     })
+    @StatementBudget(5)
     @GetMapping("/my-next-shift")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<NextShiftDto> getMyNextShift() {
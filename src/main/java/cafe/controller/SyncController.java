@@ -0,0 +1,95 @@
+package cafe.controller;
+
+import cafe.dto.SyncBundleDto;
+import cafe.profiling.StatementBudget;
+import cafe.service.SyncBundleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Sync", description = "Эндпоинты для офлайн-работы мобильного приложения")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/sync")
+@SecurityRequirement(name = "bearerAuth")
+public class SyncController {
+
+    private static final String CBOR_VALUE = "application/cbor";
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType CBOR = MediaType.parseMediaType(CBOR_VALUE);
+    private static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+
+    @Autowired
+    private SyncBundleService syncBundleService;
+
+    @Operation(
+            summary = "Пакет для офлайн-работы",
+            description = "Одним ответом: профиль, кафе пользователя, смены во всех кафе на " + SyncBundleService.DAYS
+                    + " дней вперёд, ближайшая смена и первая страница ленты новостей. Заменяет запросы /profile, "
+                    + "/schedule/my, /schedule/my-next-shift, /news/published и /cafes при запуске приложения. "
+                    + "Сильный ETag (If-None-Match -> 304). С `Accept: application/cbor` или "
+                    + "`application/x-jackson-smile` ответ в бинарном формате CBOR или Smile."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет получен", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = SyncBundleDto.class)),
+                    @Content(mediaType = "application/cbor", schema = @Schema(implementation = SyncBundleDto.class)),
+                    @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = SyncBundleDto.class))}),
+            @ApiResponse(responseCode = "304", description = "Пакет не изменился"),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован")
+    })
+    @StatementBudget(2)
+    @GetMapping(value = "/bundle", produces = {MediaType.APPLICATION_JSON_VALUE, CBOR_VALUE, SMILE_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SyncBundleDto> getBundle(@Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        SyncBundleService.Bundle bundle = syncBundleService.getBundle();
+        // У каждого представления свой сильный ETag. При совпадении If-None-Match Spring сам ответит 304 без тела
+        MediaType format = preferredFormat(accept);
+        return ResponseEntity.ok()
+                .contentType(format)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .eTag(format == MediaType.APPLICATION_JSON ? bundle.etag() : bundle.etag() + "-" + format.getSubtype())
+                .body(bundle.body());
+    }
+
+    // Бинарный формат — только по явному запросу и не менее предпочтительный, чем JSON (с учётом q)
+    private static MediaType preferredFormat(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        double cbor = 0, smile = 0, json = 0, wildcard = 0;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (CBOR.equalsTypeAndSubtype(type)) {
+                cbor = Math.max(cbor, type.getQualityValue());
+            } else if (SMILE.equalsTypeAndSubtype(type)) {
+                smile = Math.max(smile, type.getQualityValue());
+            } else if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(type)) {
+                json = Math.max(json, type.getQualityValue());
+            } else if (type.includes(MediaType.APPLICATION_JSON)) {
+                wildcard = Math.max(wildcard, type.getQualityValue());
+            }
+        }
+        double binary = Math.max(cbor, smile);
+        if (binary == 0 || binary <= json || binary < wildcard) {
+            return MediaType.APPLICATION_JSON;
+        }
+        return cbor >= smile ? CBOR : SMILE;
+    }
+}
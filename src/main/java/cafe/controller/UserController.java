@@ -1,7 +1,13 @@
 package cafe.controller;
 
+import cafe.dto.BulkUserResultDto;
+import cafe.dto.PurgeJobDto;
 import cafe.dto.UserDto;
+import cafe.dto.UserPageDto;
+import cafe.model.Role;
 import cafe.model.User;
+import cafe.profiling.StatementBudget;
+import cafe.service.UserImportService;
 import cafe.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,10 +20,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @Tag(name = "User Management", description = "Эндпоинты для управления пользователями (требует роль USER_ADMIN)")
@@ -27,8 +35,12 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private UserService userService;
+    @Autowired
+    private UserImportService userImportService;
 
     @Operation(
             summary = "Создать нового пользователя",
@@ -53,6 +65,37 @@ public class UserController {
         return ResponseEntity.status(201).body(userService.createUser(userDto));
     }
 
+    @Operation(
+            summary = "Создать пользователей списком",
+            description = "Массовое создание (например, при открытии кафе), до " + UserImportService.MAX_ROWS + " строк. " +
+                    "Тело — JSON-массив пользователей или CSV (`text/csv`) с заголовком " +
+                    "`username,email,password,firstName,lastName,position,roles,cafeId`, роли через `;`. " +
+                    "Строки с ошибками пропускаются, остальные создаются; в ответе результат по каждой строке. Только `USER_ADMIN`."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результат по строкам",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkUserResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой набор, некорректный CSV"),
+            @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    // Проверка занятых логинов, pg_notify, пакеты users, user_roles, user_cafes; повторное чтение вызывающего
+    // (импорт сбрасывает кэш запросов); первый вызов после старта — ещё роли и справочник кафе
+    @StatementBudget(8)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('USER_ADMIN')")
+    public ResponseEntity<BulkUserResultDto> createUsers(@RequestBody List<UserDto> users) {
+        return ResponseEntity.ok(userImportService.createUsers(users));
+    }
+
+    @Operation(hidden = true)
+    @StatementBudget(8)
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('USER_ADMIN')")
+    public ResponseEntity<BulkUserResultDto> createUsersFromCsv(@RequestBody String csv) {
+        return ResponseEntity.ok(userImportService.createUsersFromCsv(csv));
+    }
+
     @Operation(
             summary = "Обновить данные пользователя",
             description = "Частичное обновление полей пользователя. Нулевые значения игнорируются. Только `USER_ADMIN`."
@@ -79,37 +122,55 @@ public class UserController {
 
     @Operation(
             summary = "Удалить пользователя",
-            description = "Безвозвратно удаляет пользователя по ID. Только `USER_ADMIN`."
+            description = "Сразу блокирует и скрывает пользователя, его смены и связи удаляет фоновое задание " +
+                    "(прогресс — GET /api/jobs/{id}). Только `USER_ADMIN`."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Пользователь удалён"),
+            @ApiResponse(responseCode = "202", description = "Пользователь удалён, очистка поставлена в очередь",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurgeJobDto.class))),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('USER_ADMIN')")
-    public ResponseEntity<Void> deleteUser(
+    public ResponseEntity<PurgeJobDto> deleteUser(
             @Parameter(description = "ID пользователя", required = true, example = "1", in = ParameterIn.PATH)
             @PathVariable Long id) {
-        userService.deleteUser(id);
-        return ResponseEntity.ok().build();
+        PurgeJobDto job = userService.deleteUser(id);
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
     }
 
     @Operation(
-            summary = "Получить список всех пользователей",
-            description = "Возвращает всех пользователей системы. Доступно `USER_ADMIN` и `CAFE_ADMIN`."
+            summary = "Справочник пользователей",
+            description = "Постраничный список пользователей (keyset по ID) с фильтрами по кафе, роли, должности "
+                    + "и поиском по началу логина, имени или фамилии. Следующая страница запрашивается с "
+                    + "`afterId = nextAfterId`. Доступно `USER_ADMIN` и `CAFE_ADMIN`."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Список пользователей",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = User.class, type = "array"))),
+            @ApiResponse(responseCode = "200", description = "Страница пользователей",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры"),
             @ApiResponse(responseCode = "401", description = "Не аутентифицирован"),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав")
     })
+    @StatementBudget(8)
     @GetMapping
     @PreAuthorize("hasAuthority('USER_ADMIN') or hasAuthority('CAFE_ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<UserPageDto> getUsers(
+            @Parameter(description = "ID кафе", example = "1", in = ParameterIn.QUERY)
+            @RequestParam(required = false) Long cafeId,
+            @Parameter(description = "Роль", example = "STAFF", in = ParameterIn.QUERY)
+            @RequestParam(required = false) Role.ERole role,
+            @Parameter(description = "Должность (точное совпадение)", example = "Бариста", in = ParameterIn.QUERY)
+            @RequestParam(required = false) String position,
+            @Parameter(description = "Начало логина, имени или фамилии", example = "ива", in = ParameterIn.QUERY)
+            @RequestParam(required = false) String q,
+            @Parameter(description = "ID последнего пользователя предыдущей страницы", in = ParameterIn.QUERY)
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Размер страницы (1-" + MAX_PAGE_SIZE + ")", example = "50", in = ParameterIn.QUERY)
+            @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(userService.getUserPage(cafeId, role, position, q, afterId, pageSize));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserResultDto {
+    private int created;
+    private int failed;
+    // Результат по каждой строке в порядке запроса
+    private List<Row> rows;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        // Номер строки во входных данных, с нуля
+        private int index;
+        private String username;
+        private Status status;
+        private Long id;
+        private String error;
+    }
+
+    public enum Status {
+        CREATED, FAILED
+    }
+}
@@ -0,0 +1,63 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Укомплектованность кафе за месяц: сколько сотрудников в статусе WORKING по дням и часам
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverageDto {
+    // YYYY-MM
+    private String month;
+    // Часы работы [openHour, closeHour), в которых проверяется минимум
+    private int openHour;
+    private int closeHour;
+    private int minStaff;
+    private List<CafeCoverage> cafes;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CafeCoverage {
+        private Long cafeId;
+        private String cafeName;
+        private boolean approved;
+        private List<DayCoverage> days;
+        private List<Gap> understaffed;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayCoverage {
+        private LocalDate date;
+        // Сотрудников со сменой в этот день — всего и по должностям
+        private int working;
+        private Map<String, Integer> byPosition;
+        // По часам: элемент h — сотрудники на смене в интервале [h:00, h+1:00)
+        private int[] hourly;
+        private Map<String, int[]> hourlyByPosition;
+    }
+
+    // Часы [fromHour, toHour) подряд, в которые на смене меньше minStaff сотрудников
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Gap {
+        private LocalDate date;
+        private int fromHour;
+        private int toHour;
+        private int minWorking;
+    }
+}
@@ -0,0 +1,36 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Главный экран приложения (GET /api/home): части собираются параллельно
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HomeDto {
+    private SyncBundleDto.Profile profile;
+    private NextShiftDto nextShift;
+    // Текущий месяц в формате YYYY-MM
+    private String month;
+    // Утверждено ли расписание текущего месяца в каждом кафе пользователя
+    private List<CafeApproval> approvals;
+    private NewsFeedDto news;
+    // Части, не успевшие за отведённое время или завершившиеся ошибкой: nextShift, approvals, news.
+    // Их поля — null, остальное в ответе актуально
+    private List<String> unavailable;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CafeApproval {
+        private Long cafeId;
+        private String cafeName;
+        private boolean approved;
+    }
+}
@@ -0,0 +1,18 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsFeedDto {
+    private List<NewsSummaryDto> items;
+    // Курсор следующей страницы (параметр cursor); null — страниц больше нет
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsSearchHitDto {
+    private Long id;
+    private String title;
+    // Фрагмент текста, экранированный как HTML; найденные слова обёрнуты в <mark>...</mark>
+    private String snippet;
+    private Instant publishedAt;
+    private float rank;
+}
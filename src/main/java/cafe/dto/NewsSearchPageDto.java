@@ -0,0 +1,18 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsSearchPageDto {
+    private List<NewsSearchHitDto> items;
+    private int page;
+    private boolean hasMore;
+}
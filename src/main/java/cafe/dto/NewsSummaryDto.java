@@ -0,0 +1,19 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsSummaryDto {
+    private Long id;
+    private String title;
+    private String excerpt;
+    private Instant publishedAt;
+}
@@ -0,0 +1,29 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurgeJobDto {
+    private Long id;
+    private String type;
+    private Long targetId;
+    private String status;
+    private Long totalItems;
+    private long processedItems;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+    private String error;
+    private int attempts;
+    private Instant nextAttemptAt;
+}
@@ -0,0 +1,24 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Set;
+
+// Событие изменения расписания месяца кафе (SSE /api/schedule/stream)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleChangeDto {
+    private Long cafeId;
+    // Месяц в формате YYYY-MM
+    private String month;
+    private long version;
+    // Чьи смены изменились; пусто — изменился только статус утверждения,
+    // null — список слишком велик для передачи, перечитать весь месяц
+    private Set<Long> userIds;
+    private boolean approved;
+}
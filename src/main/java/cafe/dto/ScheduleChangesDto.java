@@ -0,0 +1,42 @@
+package cafe.dto;
+
+import cafe.model.ScheduleEntry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleChangesDto {
+    // Последнее состояние каждой изменившейся смены в порядке изменения
+    private List<Change> changes;
+    // Передать в since при следующей синхронизации
+    private long nextSince;
+    // Изменений больше, чем вошло в ответ: запросить ещё раз с nextSince
+    private boolean hasMore;
+    // since старше сохранённой истории: удалить локальные данные и синхронизироваться с since=0
+    private boolean resetRequired;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private long seq;
+        private Long cafeId;
+        private Long userId;
+        private LocalDate date;
+        // true — смены на эту дату больше нет, остальные поля пустые
+        private boolean deleted;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private ScheduleEntry.Status status;
+    }
+}
@@ -0,0 +1,43 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Расписание кафе за месяц в виде таблицы «сотрудник × день». Ячейки идут построчно:
+// сотрудник 0 — дни 1..days, затем сотрудник 1 и т.д.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleGridDto {
+    private Long cafeId;
+    // YYYY-MM
+    private String month;
+    private boolean approved;
+    // Число дней в месяце — длина строки таблицы
+    private int days;
+    // Расшифровка кодов статуса: код i — statuses[i - 1], код 0 — смены нет
+    private List<String> statuses;
+    private List<Employee> employees;
+    // Коды статусов ячеек, сжатые повторами: пары [код, число ячеек подряд]
+    private int[] statusRuns;
+    // Начало и конец смены в минутах от полуночи — по одному значению на каждую ячейку с кодом не 0, в порядке ячеек
+    private int[] startMinutes;
+    private int[] endMinutes;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Employee {
+        private Long userId;
+        private String username;
+        private String firstName;
+        private String lastName;
+        private String position;
+    }
+}
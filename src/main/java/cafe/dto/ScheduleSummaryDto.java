@@ -0,0 +1,28 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Итоги месяца по сотруднику в кафе: отработанное время и число дней по статусам
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleSummaryDto {
+    private Long cafeId;
+    private Long userId;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String position;
+    private int year;
+    private int month;
+    private int workingShifts;
+    // Сумма длительностей смен WORKING; смена через полночь считается до конца в следующих сутках
+    private int workingMinutes;
+    private int offDays;
+    private int vacationDays;
+    private int sickLeaveDays;
+}
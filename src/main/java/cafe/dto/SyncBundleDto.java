@@ -0,0 +1,55 @@
+package cafe.dto;
+
+import cafe.model.ScheduleEntry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Всё, что нужно приложению сотрудника для работы офлайн, одним ответом (GET /api/sync/bundle)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncBundleDto {
+    private Profile profile;
+    private List<CafeDto> cafes;
+    // Смены во всех кафе с from по to включительно
+    private LocalDate from;
+    private LocalDate to;
+    private List<Shift> shifts;
+    // Ближайшая рабочая смена, в т.ч. за пределами периода; null — смен нет
+    private NextShiftDto nextShift;
+    // Первая страница ленты новостей
+    private List<NewsSummaryDto> news;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Profile {
+        private Long id;
+        private String username;
+        private String email;
+        private String firstName;
+        private String lastName;
+        private String position;
+        private List<String> roles;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shift {
+        private Long cafeId;
+        private LocalDate date;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private ScheduleEntry.Status status;
+    }
+}
@@ -0,0 +1,18 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDto {
+    private List<UserSummaryDto> items;
+    // id последнего пользователя страницы для запроса следующей (afterId); null — страниц больше нет
+    private Long nextAfterId;
+}
@@ -0,0 +1,34 @@
+package cafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String position;
+    private List<String> roles = new ArrayList<>();
+    private List<Long> cafeIds = new ArrayList<>();
+
+    // Конструктор для JPQL-проекции (select new ...)
+    public UserSummaryDto(Long id, String username, String email, String firstName, String lastName, String position) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.position = position;
+    }
+}
@@ -10,6 +10,9 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.util.DisconnectedClientHelper;
+
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -76,9 +79,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    // 500 — превышен объявленный бюджет SQL-запросов (app.profiling.enforce-statement-budget)
+    @ExceptionHandler(StatementBudgetExceededException.class)
+    public ResponseEntity<ErrorResponse> handleStatementBudgetExceeded(StatementBudgetExceededException ex) {
+        logger.error(ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "Internal Server Error",
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    }
+
+    // Клиент закрыл соединение (например, SSE-поток расписания): отвечать уже некому
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClientAbort(AsyncRequestNotUsableException ex) {
+        logger.debug("Client disconnected: {}", ex.getMessage());
+    }
+
     // 400
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneral(Exception ex) {
+        // Обрыв соединения, о котором контейнер сообщил в асинхронный запрос (SSE), — тоже не ошибка сервера
+        if (DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+            logger.debug("Client disconnected: {}", ex.getMessage());
+            return null;
+        }
         logger.error("Unexpected error: ", ex);
         ErrorResponse error = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -2,8 +2,12 @@ package cafe.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cafes")
 @Table(name = "cafes")
 @Getter
 @Setter
@@ -18,4 +22,9 @@ public class Cafe {
     private String name;
     private String address;
     private String phone;
+
+    // Мягкое удаление: запись скрыта сразу, данные вычищает фоновое задание (PurgeJobService)
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
 }
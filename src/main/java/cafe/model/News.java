@@ -20,7 +20,9 @@ public class News {
     @Column(nullable = false, length = 200)
     private String title;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // length совпадает с размером, который драйвер сообщает для text: иначе ddl-auto=update на каждом
+    // старте меняет тип колонки, а от неё зависит сгенерированная колонка search_vector (schema.sql)
+    @Column(nullable = false, columnDefinition = "TEXT", length = Integer.MAX_VALUE)
     private String content;
 
     @Column(name = "published_at", nullable = false)
@@ -0,0 +1,75 @@
+package cafe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+// Фоновое удаление данных кафе или пользователя порциями
+@Entity
+@Table(name = "purge_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PurgeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    // Сколько строк расписания нужно удалить (считается при старте задания) и сколько уже удалено
+    @Column(name = "total_items")
+    private Long totalItems;
+
+    @Column(name = "processed_items", nullable = false)
+    private long processedItems;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    // Неудачные попытки подряд; после сбоя задание ждёт next_attempt_at и берётся снова
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    public PurgeJob(Type type, Long targetId) {
+        this.type = type;
+        this.targetId = targetId;
+        this.status = Status.PENDING;
+        this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public enum Type {
+        CAFE, USER
+    }
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+}
@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-
+// Роли создаются один раз при старте и не меняются
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 @Table(name = "roles", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 @Getter
 @Setter
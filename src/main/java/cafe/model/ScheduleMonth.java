@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.YearMonth;
 
@@ -26,6 +27,12 @@ public class ScheduleMonth {
     @Column(nullable = false)
     private boolean approved = false;
 
+    // Растёт при каждом изменении расписания месяца, уходит клиентам в событиях /api/schedule/stream.
+    // Меняется только атомарным UPDATE (ScheduleMonthRepository.incrementVersion), Hibernate его не перезаписывает
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "approved_by")
     private User approvedBy;
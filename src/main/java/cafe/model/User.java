@@ -5,11 +5,17 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
+// Пользователь, его роли и кафе читаются при каждом аутентифицированном запросе
+// и меняются редко — лежат в кэше второго уровня (размеры регионов в application.conf)
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "username"),
         @UniqueConstraint(columnNames = "email")
@@ -32,12 +38,19 @@ public class User {
     @Column(name = "position")
     private String position;
 
+    // Удалённый пользователь не входит в систему и не виден в списках до окончательной очистки
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-cafes")
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "user_cafes",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,59 @@
+package cafe.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Сериализует тело в буфер, чтобы успеть добавить Server-Timing до отправки заголовков
+final class ProfiledBody {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfiledBody.class);
+
+    interface Writer {
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+
+    private ProfiledBody() {
+    }
+
+    static void write(HttpOutputMessage outputMessage, Writer writer) throws IOException {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            writer.write(outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        writer.write(new BufferedOutputMessage(outputMessage.getHeaders(), buffer));
+        profile.addSerialization(System.nanoTime() - start);
+
+        // Здесь транзакция уже закоммичена — только предупреждение; принудительная проверка — до выполнения запроса
+        // (RequestProfile.beforeStatement)
+        if (profile.checkBudgetExceeded()) {
+            logger.warn("statement budget exceeded {}", profile.toLogFields());
+        }
+
+        outputMessage.getHeaders().set(RequestProfilingFilter.SERVER_TIMING, profile.toServerTiming());
+        // Известная длина: Tomcat не сжимает ответы меньше server.compression.min-response-size
+        outputMessage.getHeaders().setContentLength(buffer.size());
+        buffer.writeTo(outputMessage.getBody());
+    }
+
+    private record BufferedOutputMessage(HttpHeaders headers, OutputStream body) implements HttpOutputMessage {
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package cafe.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// CBOR и Smile с тем же замером сериализации, что и JSON: Server-Timing сравним между форматами
+public class ProfilingBinaryJacksonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public ProfilingBinaryJacksonHttpMessageConverter(ObjectMapper objectMapper, List<MediaType> supportedMediaTypes) {
+        super(objectMapper, supportedMediaTypes.toArray(MediaType[]::new));
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        ProfiledBody.write(outputMessage, message -> super.writeInternal(object, type, message));
+    }
+}
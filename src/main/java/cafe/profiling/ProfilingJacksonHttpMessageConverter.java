@@ -0,0 +1,23 @@
+package cafe.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// JSON с замером сериализации и Server-Timing (см. ProfiledBody)
+public class ProfilingJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public ProfilingJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        ProfiledBody.write(outputMessage, message -> super.writeInternal(object, type, message));
+    }
+}
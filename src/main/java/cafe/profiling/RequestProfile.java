@@ -0,0 +1,136 @@
+package cafe.profiling;
+
+import cafe.exception.StatementBudgetExceededException;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+public class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private int statements;
+    private long dbNanos;
+    private long authNanos;
+    private long serializationNanos;
+    private int statementBudget = -1;
+    private boolean enforceBudget;
+
+    public static RequestProfile start() {
+        RequestProfile profile = new RequestProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // Часть запроса, выполняемая в другом потоке (параллельные компоненты /api/home), учитывается в его профиле
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestProfile profile = CURRENT.get();
+        if (profile == null) {
+            return task;
+        }
+        return () -> {
+            RequestProfile previous = CURRENT.get();
+            CURRENT.set(profile);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    // Вызывается перед выполнением запроса к БД: при принудительном бюджете лишний запрос не выполняется,
+    // исключение откатывает транзакцию сервиса до коммита
+    public static void beforeStatement() {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.enforceBudget) {
+            synchronized (profile) {
+                if (profile.statementBudget >= 0 && profile.statements >= profile.statementBudget) {
+                    int budget = profile.statementBudget;
+                    profile.statementBudget = -1;
+                    throw new StatementBudgetExceededException(
+                            "Statement budget exceeded: more than " + budget + " statements");
+                }
+            }
+        }
+    }
+
+    public static void recordStatement(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            synchronized (profile) {
+                profile.statements++;
+                profile.dbNanos += nanos;
+            }
+        }
+    }
+
+    public static void recordAuth(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            synchronized (profile) {
+                profile.authNanos += nanos;
+            }
+        }
+    }
+
+    public void addSerialization(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public void setStatementBudget(int statementBudget, boolean enforce) {
+        this.statementBudget = statementBudget;
+        this.enforceBudget = enforce;
+    }
+
+    // Возвращает true один раз, если бюджет запросов к БД превышен
+    public boolean checkBudgetExceeded() {
+        if (statementBudget >= 0 && statements > statementBudget) {
+            statementBudget = -1;
+            return true;
+        }
+        return false;
+    }
+
+    public int getStatementBudget() {
+        return statementBudget;
+    }
+
+    public long totalMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public String toServerTiming() {
+        return String.format(Locale.ROOT,
+                "auth;dur=%.1f, db;dur=%.1f;desc=\"%d statements\", ser;dur=%.1f, total;dur=%.1f",
+                millis(authNanos), millis(dbNanos), statements, millis(serializationNanos),
+                millis(System.nanoTime() - startNanos));
+    }
+
+    public String toLogFields() {
+        return String.format(Locale.ROOT,
+                "total_ms=%d auth_ms=%.1f db_ms=%.1f statements=%d serialization_ms=%.1f",
+                totalMillis(), millis(authNanos), millis(dbNanos), statements, millis(serializationNanos));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
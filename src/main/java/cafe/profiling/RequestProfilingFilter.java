@@ -0,0 +1,60 @@
+package cafe.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestProfilingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestProfilingFilter.class);
+
+    @Value("${app.profiling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.profiling.slow-request-threshold-ms:500}")
+    private long slowRequestThresholdMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestProfile profile = RequestProfile.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestProfile.end();
+            // Ответы без тела (204, ошибки безопасности) не проходят через конвертер
+            if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                response.setHeader(SERVER_TIMING, profile.toServerTiming());
+            }
+            if (profile.checkBudgetExceeded()) {
+                logger.warn("statement budget exceeded method={} uri={} {}",
+                        request.getMethod(), request.getRequestURI(), profile.toLogFields());
+            }
+            if (profile.totalMillis() >= slowRequestThresholdMs) {
+                logger.warn("slow request method={} uri={} status={} {}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), profile.toLogFields());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package cafe.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+public class StatementBudgetInterceptor implements HandlerInterceptor {
+
+    private final boolean enforce;
+
+    public StatementBudgetInterceptor(boolean enforce) {
+        this.enforce = enforce;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null && handler instanceof HandlerMethod handlerMethod) {
+            StatementBudget budget = handlerMethod.getMethodAnnotation(StatementBudget.class);
+            if (budget != null) {
+                profile.setStatementBudget(budget.value(), enforce);
+            }
+        }
+        return true;
+    }
+}
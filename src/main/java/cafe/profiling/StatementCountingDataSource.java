@@ -0,0 +1,81 @@
+package cafe.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Считает запросы на уровне соединений пула: и Hibernate, и JdbcTemplate попадают в профиль запроса.
+// Пакет (executeBatch) — один запрос к БД. Принудительный бюджет проверяется до выполнения запроса
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(proxy, connection, method, args);
+                    if (result instanceof CallableStatement statement) {
+                        return wrapStatement(statement, CallableStatement.class);
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return wrapStatement(statement, PreparedStatement.class);
+                    }
+                    if (result instanceof Statement statement) {
+                        return wrapStatement(statement, Statement.class);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object wrapStatement(Statement statement, Class<? extends Statement> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(proxy, statement, method, args);
+            }
+            RequestProfile.beforeStatement();
+            long start = System.nanoTime();
+            try {
+                return invoke(proxy, statement, method, args);
+            } finally {
+                RequestProfile.recordStatement(System.nanoTime() - start);
+            }
+        };
+        return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // equals/hashCode — по самой обёртке: Hibernate хранит выданные ему Statement в коллекциях
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
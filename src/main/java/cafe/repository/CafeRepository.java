@@ -1,7 +1,11 @@
 package cafe.repository;
 
 import cafe.model.Cafe;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface CafeRepository extends JpaRepository<Cafe, Long> {
-}
\ No newline at end of file
+    List<Cafe> findByDeletedFalse(Sort sort);
+}
@@ -1,7 +1,52 @@
 package cafe.repository;
 
+import cafe.dto.NewsSummaryDto;
 import cafe.model.News;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface NewsRepository extends JpaRepository<News, Long> {
+    // Из БД читается только начало текста: на один символ больше анонса, чтобы понять, обрезан ли он
+    int EXCERPT_LENGTH = 280;
+
+    @Query("SELECT new cafe.dto.NewsSummaryDto(n.id, n.title, substring(n.content, 1, " + (EXCERPT_LENGTH + 1) + "), n.publishedAt) " +
+            "FROM News n ORDER BY n.publishedAt DESC, n.id DESC")
+    List<NewsSummaryDto> findFeed(Limit limit);
+
+    @Query("SELECT new cafe.dto.NewsSummaryDto(n.id, n.title, substring(n.content, 1, " + (EXCERPT_LENGTH + 1) + "), n.publishedAt) " +
+            "FROM News n WHERE (n.publishedAt, n.id) < (:publishedAt, :id) ORDER BY n.publishedAt DESC, n.id DESC")
+    List<NewsSummaryDto> findFeedBefore(@Param("publishedAt") Instant publishedAt, @Param("id") Long id, Limit limit);
+
+    // Совпадения ищутся по GIN-индексу; ранжируются не более maxCandidates самых свежих из них,
+    // а ts_headline (чтение полного текста) считается только для строк запрошенной страницы.
+    // Текст экранируется до выделения: в snippet из разметки остаются только вставленные <mark>
+    @Query(value = """
+            WITH candidates AS (
+                SELECT n.id, n.published_at, n.search_vector
+                FROM news n
+                WHERE n.search_vector @@ websearch_to_tsquery('russian', :query)
+                ORDER BY n.published_at DESC
+                LIMIT :maxCandidates
+            ),
+            page AS (
+                SELECT c.id, ts_rank_cd(c.search_vector, websearch_to_tsquery('russian', :query)) AS rank
+                FROM candidates c
+                ORDER BY rank DESC, c.published_at DESC, c.id DESC
+                LIMIT :limit OFFSET :offset
+            )
+            SELECT n.id AS id, n.title AS title, n.published_at AS publishedAt, p.rank AS rank,
+                   ts_headline('russian',
+                               replace(replace(replace(replace(n.content, '&', '&amp;'), '<', '&lt;'), '>', '&gt;'), '"', '&quot;'),
+                               websearch_to_tsquery('russian', :query),
+                               'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=25, MinWords=8') AS snippet
+            FROM page p JOIN news n ON n.id = p.id
+            ORDER BY p.rank DESC, n.published_at DESC, n.id DESC
+            """, nativeQuery = true)
+    List<NewsSearchRow> search(@Param("query") String query, @Param("maxCandidates") int maxCandidates,
+                               @Param("limit") int limit, @Param("offset") int offset);
 }
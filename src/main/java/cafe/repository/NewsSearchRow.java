@@ -0,0 +1,16 @@
+package cafe.repository;
+
+import java.time.Instant;
+
+// Строка результата полнотекстового поиска (нативный запрос NewsRepository.search)
+public interface NewsSearchRow {
+    Long getId();
+
+    String getTitle();
+
+    String getSnippet();
+
+    Instant getPublishedAt();
+
+    Float getRank();
+}
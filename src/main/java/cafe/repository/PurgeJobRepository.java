@@ -0,0 +1,18 @@
+package cafe.repository;
+
+import cafe.model.PurgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface PurgeJobRepository extends JpaRepository<PurgeJob, Long> {
+    // Следующее задание: ожидающее (после сбоя — когда подошло время повтора) или брошенное
+    // (экземпляр упал посреди работы). SKIP LOCKED не даёт двум экземплярам приложения взять одно задание
+    @Query(value = "SELECT * FROM purge_jobs WHERE (status = 'PENDING' AND (next_attempt_at IS NULL OR next_attempt_at <= :now)) " +
+            "OR (status = 'RUNNING' AND updated_at < :staleBefore) " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<PurgeJob> lockNextJob(@Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+}
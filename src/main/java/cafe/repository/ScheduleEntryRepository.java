@@ -14,11 +14,22 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
 
     List<ScheduleEntry> findByScheduleMonthIdAndCafeId(Long scheduleMonthId, Long cafeId);
 
+    List<ScheduleEntry> findByScheduleMonthIdAndCafeIdAndUserDeletedFalse(Long scheduleMonthId, Long cafeId);
+
+    // Строки [cafeId, дата, начало, конец, статус] смен сотрудника за период
+    @Query("SELECT e.cafe.id, e.date, e.startTime, e.endTime, e.status FROM ScheduleEntry e " +
+            "WHERE e.user.id = :userId AND e.date BETWEEN :from AND :to ORDER BY e.date, e.startTime")
+    List<Object[]> findShiftRowsByUserIdAndDateBetween(@Param("userId") Long userId, @Param("from") LocalDate from,
+                                                       @Param("to") LocalDate to);
+
     List<ScheduleEntry> findByUserIdAndCafeIdAndDate(Long userId, Long cafeId, LocalDate date);
 
     List<ScheduleEntry> findFirst1ByUserIdAndDateGreaterThanEqualAndStatusOrderByDateAscStartTimeAsc(
             Long userId, LocalDate date, ScheduleEntry.Status status);
 
+    List<ScheduleEntry> findFirst1ByUserIdAndDateGreaterThanEqualAndStatusAndCafeDeletedFalseOrderByDateAscStartTimeAsc(
+            Long userId, LocalDate date, ScheduleEntry.Status status);
+
     @Modifying
     @Query("DELETE FROM ScheduleEntry e WHERE e.user.id = :userId AND e.scheduleMonth.id = :monthId AND e.cafe.id = :cafeId")
     void deleteByUserIdAndScheduleMonthIdAndCafeId(@Param("userId") Long userId, @Param("monthId") Long monthId, @Param("cafeId") Long cafeId);
@@ -30,4 +41,19 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
     @Modifying
     @Query("DELETE FROM ScheduleEntry e WHERE e.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    long countByCafeId(Long cafeId);
+
+    long countByUserId(Long userId);
+
+    // Порционное удаление для фоновой очистки: короткие транзакции вместо одной длинной
+    @Modifying
+    @Query(value = "DELETE FROM schedule_entries WHERE id IN (SELECT id FROM schedule_entries WHERE cafe_id = :cafeId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByCafeId(@Param("cafeId") Long cafeId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM schedule_entries WHERE id IN (SELECT id FROM schedule_entries WHERE user_id = :userId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+}
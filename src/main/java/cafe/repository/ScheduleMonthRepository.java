@@ -2,7 +2,11 @@ package cafe.repository;
 
 import cafe.model.ScheduleMonth;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +14,25 @@ public interface ScheduleMonthRepository extends JpaRepository<ScheduleMonth, Lo
     Optional<ScheduleMonth> findByYearAndMonthAndCafeId(int year, int month, Long cafeId);
 
     List<ScheduleMonth> findByCafeId(Long cafeId);
-}
\ No newline at end of file
+
+    @Query("SELECT m.cafe.id FROM ScheduleMonth m WHERE m.year = :year AND m.month = :month " +
+            "AND m.cafe.id IN :cafeIds AND m.approved = true")
+    List<Long> findApprovedCafeIds(@Param("year") int year, @Param("month") int month, @Param("cafeIds") Collection<Long> cafeIds);
+
+    @Modifying
+    @Query("DELETE FROM ScheduleMonth m WHERE m.cafe.id = :cafeId")
+    int deleteAllByCafeId(@Param("cafeId") Long cafeId);
+
+    @Modifying
+    @Query("UPDATE ScheduleMonth m SET m.approvedBy = null WHERE m.approvedBy.id = :userId")
+    int clearApprovedBy(@Param("userId") Long userId);
+
+    // Новая версия месяца; строка остаётся заблокированной до конца транзакции,
+    // поэтому параллельные изменения одного месяца (включая утверждение) выполняются по очереди
+    @Query(value = "UPDATE schedule_months SET version = version + 1 WHERE id = :id RETURNING version", nativeQuery = true)
+    long incrementVersion(@Param("id") Long id);
+
+    // Читается после incrementVersion: видит утверждение, закоммиченное до получения блокировки строки
+    @Query(value = "SELECT approved FROM schedule_months WHERE id = :id", nativeQuery = true)
+    boolean isApproved(@Param("id") Long id);
+}
@@ -1,11 +1,21 @@
 package cafe.repository;
 
 import cafe.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    // Кэш запросов: вход по JWT на каждом запросе не обращается к БД, пока таблица users не менялась
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -13,4 +23,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    // Пары [userId, роль] для страницы справочника
+    @Query("SELECT u.id, r.name FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<Object[]> findRoleNamesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Пары [userId, cafeId] для страницы справочника
+    @Query("SELECT u.id, c.id FROM User u JOIN u.cafes c WHERE u.id IN :userIds")
+    List<Object[]> findCafeIdsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_cafes WHERE cafe_id = :cafeId", nativeQuery = true)
+    int deleteCafeLinks(@Param("cafeId") Long cafeId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_cafes WHERE user_id = :userId", nativeQuery = true)
+    int deleteUserCafeLinks(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_roles WHERE user_id = :userId", nativeQuery = true)
+    int deleteUserRoleLinks(@Param("userId") Long userId);
+
+    // Проверка уникальности для массового создания: одна выборка на весь набор
+    @Query("SELECT u.username, u.email FROM User u WHERE u.username IN :usernames OR u.email IN :emails")
+    List<Object[]> findTakenUsernamesAndEmails(@Param("usernames") Collection<String> usernames,
+                                               @Param("emails") Collection<String> emails);
 }
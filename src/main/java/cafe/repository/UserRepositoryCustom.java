@@ -0,0 +1,10 @@
+package cafe.repository;
+
+import cafe.dto.UserSummaryDto;
+import cafe.model.Role;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    List<UserSummaryDto> findSummaries(Long cafeId, Role.ERole role, String position, String query, Long afterId, int limit);
+}
@@ -0,0 +1,65 @@
+package cafe.repository;
+
+import cafe.dto.UserSummaryDto;
+import cafe.model.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Запрос собирается только из заданных фильтров: условия вида ":p IS NULL OR ..." мешают
+    // Postgres использовать индексы на закэшированном (generic) плане
+    @Override
+    public List<UserSummaryDto> findSummaries(Long cafeId, Role.ERole role, String position, String query, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new cafe.dto.UserSummaryDto(u.id, u.username, u.email, u.firstName, u.lastName, u.position) FROM User u");
+        Map<String, Object> params = new HashMap<>();
+
+        if (cafeId != null) {
+            jpql.append(" JOIN u.cafes c");
+        }
+        if (role != null) {
+            jpql.append(" JOIN u.roles r");
+        }
+        jpql.append(" WHERE u.id > :afterId AND u.deleted = false");
+        params.put("afterId", afterId != null ? afterId : 0L);
+
+        if (cafeId != null) {
+            jpql.append(" AND c.id = :cafeId");
+            params.put("cafeId", cafeId);
+        }
+        if (role != null) {
+            jpql.append(" AND r.name = :role");
+            params.put("role", role);
+        }
+        if (position != null && !position.isBlank()) {
+            jpql.append(" AND u.position = :position");
+            params.put("position", position);
+        }
+        if (query != null && !query.isBlank()) {
+            // Поиск по префиксу; lower(...) совпадает с выражениями trgm-индексов из schema.sql
+            jpql.append(" AND (lower(u.username) LIKE :prefix ESCAPE '\\'"
+                    + " OR lower(u.firstName) LIKE :prefix ESCAPE '\\'"
+                    + " OR lower(u.lastName) LIKE :prefix ESCAPE '\\')");
+            params.put("prefix", escapeLike(query.trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        jpql.append(" ORDER BY u.id");
+
+        TypedQuery<UserSummaryDto> typedQuery = entityManager.createQuery(jpql.toString(), UserSummaryDto.class);
+        params.forEach(typedQuery::setParameter);
+        return typedQuery.setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
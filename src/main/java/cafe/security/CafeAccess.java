@@ -0,0 +1,34 @@
+package cafe.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+// Доступ к кафе для выражений @PreAuthorize: @cafeAccess.canRead(authentication, #cafeId).
+// Кафе пользователя лежат в principal (UserDetailsImpl.cafeIds), проверка — поиск в множестве без запросов к БД
+@Component("cafeAccess")
+public class CafeAccess {
+
+    private static final String USER_ADMIN = "USER_ADMIN";
+
+    // Смотреть расписание: USER_ADMIN — любое кафе, остальные — только свои
+    public boolean canRead(Authentication authentication, Long cafeId) {
+        return isUserAdmin(authentication) || isMember(authentication, cafeId);
+    }
+
+    // Менять расписание кафе можно только сотрудникам этого кафе
+    public boolean canWrite(Authentication authentication, Long cafeId) {
+        return isMember(authentication, cafeId);
+    }
+
+    public boolean isMember(Authentication authentication, Long cafeId) {
+        return cafeId != null
+                && authentication != null
+                && authentication.getPrincipal() instanceof UserDetailsImpl user
+                && user.getCafeIds().contains(cafeId);
+    }
+
+    private static boolean isUserAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> USER_ADMIN.equals(authority.getAuthority()));
+    }
+}
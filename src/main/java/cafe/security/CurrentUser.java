@@ -0,0 +1,47 @@
+package cafe.security;
+
+import cafe.exception.ResourceNotFoundException;
+import cafe.model.Role;
+import cafe.model.User;
+import cafe.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// Текущий пользователь запроса — из principal, который положил JwtAuthenticationFilter.
+// Id, роли и кафе уже загружены при аутентификации: повторно искать пользователя по username не нужно
+@Component
+public class CurrentUser {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public UserDetailsImpl get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl user)) {
+            throw new ResourceNotFoundException("Current user not found");
+        }
+        return user;
+    }
+
+    public Long id() {
+        return get().getId();
+    }
+
+    public Set<Long> cafeIds() {
+        return get().getCafeIds();
+    }
+
+    public boolean hasRole(Role.ERole role) {
+        return get().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals(role.name()));
+    }
+
+    // Ссылка для связей (автор смены, утвердивший месяц) без SELECT пользователя
+    public User reference() {
+        return userRepository.getReferenceById(id());
+    }
+}
@@ -1,6 +1,7 @@
 package cafe.security;
 
 
+import cafe.profiling.RequestProfile;
 import cafe.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -40,6 +41,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        long start = System.nanoTime();
         jwt = authHeader.substring(7);
         username = jwtService.extractUsername(jwt);
 
@@ -52,6 +54,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
+        RequestProfile.recordAuth(System.nanoTime() - start);
         filterChain.doFilter(request, response);
     }
 }
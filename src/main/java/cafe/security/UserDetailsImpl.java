@@ -1,5 +1,6 @@
 package cafe.security;
 
+import cafe.model.Cafe;
 import cafe.model.User;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,6 +11,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Getter
@@ -23,10 +25,12 @@ public class UserDetailsImpl implements UserDetails {
     private String lastName;
     private String position;
     private Collection<? extends GrantedAuthority> authorities;
+    // Кафе пользователя: проверка доступа (CafeAccess) без загрузки User.cafes
+    private Set<Long> cafeIds;
 
     public UserDetailsImpl(Long id, String username, String email, String password,
                            String firstName, String lastName, String position,
-                           Collection<? extends GrantedAuthority> authorities) {
+                           Collection<? extends GrantedAuthority> authorities, Set<Long> cafeIds) {
         this.id = id;
         this.username = username;
         this.email = email;
@@ -35,6 +39,7 @@ public class UserDetailsImpl implements UserDetails {
         this.lastName = lastName;
         this.position = position;
         this.authorities = authorities;
+        this.cafeIds = cafeIds;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -50,7 +55,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getFirstName(),
                 user.getLastName(),
                 user.getPosition(),
-                authorities);
+                authorities,
+                user.getCafes().stream().map(Cafe::getId).collect(Collectors.toUnmodifiableSet()));
     }
 
     @Override
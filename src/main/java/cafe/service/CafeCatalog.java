@@ -0,0 +1,127 @@
+package cafe.service;
+
+import cafe.exception.ResourceNotFoundException;
+import cafe.model.Cafe;
+import cafe.repository.CafeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Справочник кафе в памяти: неизменяемый снимок, который целиком заменяется при изменениях.
+// Версия снимка хранится в catalog_versions: каждое изменение кафе увеличивает её в своей транзакции,
+// остальные экземпляры приложения получают сообщение через InvalidationBus, а пропущенное
+// замечают по новой версии при периодической проверке.
+@Component
+public class CafeCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CafeCatalog.class);
+    private static final String CATALOG_NAME = "cafes";
+
+    @Autowired
+    private CafeRepository cafeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    private volatile Snapshot snapshot;
+
+    public record Entry(Long id, String name, String address, String phone) {
+    }
+
+    public record Snapshot(long version, Map<Long, Entry> byId, Map<String, Entry> byName, List<Entry> all) {
+    }
+
+    public List<Entry> getAll() {
+        return snapshot().all();
+    }
+
+    public Optional<Entry> findById(Long id) {
+        return Optional.ofNullable(id != null ? snapshot().byId().get(id) : null);
+    }
+
+    public Optional<Entry> findByName(String name) {
+        return Optional.ofNullable(name != null ? snapshot().byName().get(name) : null);
+    }
+
+    public Entry require(Long id) {
+        return findById(id).orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
+    }
+
+    public boolean exists(Long id) {
+        return findById(id).isPresent();
+    }
+
+    // Вызывается в транзакции, изменившей кафе: версия растёт вместе с данными,
+    // локальный снимок пересобирается после коммита
+    public void markChanged() {
+        jdbcTemplate.update("UPDATE catalog_versions SET version = version + 1 WHERE name = ?", CATALOG_NAME);
+        invalidationBus.publish(InvalidationBus.Message.cafes());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    // Изменение на другом экземпляре; проверка версии ниже остаётся страховкой на случай потери сообщения
+    @EventListener
+    public void onInvalidation(InvalidationBus.Message message) {
+        if (message.affects(InvalidationBus.Type.CAFES)) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cafe-catalog.poll-interval-ms:5000}")
+    public void checkVersion() {
+        Snapshot current = snapshot;
+        if (current != null && readVersion() != current.version()) {
+            reload();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    // Версия читается до данных: снимок может оказаться новее своей версии, но не старее
+    private synchronized Snapshot reload() {
+        long version = readVersion();
+        Map<Long, Entry> byId = new LinkedHashMap<>();
+        Map<String, Entry> byName = new LinkedHashMap<>();
+        for (Cafe cafe : cafeRepository.findByDeletedFalse(Sort.by("id"))) {
+            Entry entry = new Entry(cafe.getId(), cafe.getName(), cafe.getAddress(), cafe.getPhone());
+            byId.put(entry.id(), entry);
+            byName.put(entry.name(), entry);
+        }
+        Snapshot loaded = new Snapshot(version, Collections.unmodifiableMap(byId), Collections.unmodifiableMap(byName),
+                List.copyOf(byId.values()));
+        snapshot = loaded;
+        logger.debug("Cafe catalog loaded: version {}, {} cafes", version, byId.size());
+        return loaded;
+    }
+
+    private long readVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM catalog_versions WHERE name = ?", Long.class, CATALOG_NAME);
+        return version != null ? version : 0L;
+    }
+}
@@ -1,11 +1,12 @@
 package cafe.service;
 
 import cafe.dto.CafeDto;
+import cafe.dto.PurgeJobDto;
 import cafe.model.Cafe;
+import cafe.model.PurgeJob;
 import cafe.repository.CafeRepository;
-import cafe.repository.ScheduleEntryRepository;
-import cafe.repository.ScheduleMonthRepository;
 import cafe.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,50 +15,79 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class CafeService {
 
     @Autowired
     private CafeRepository cafeRepository;
     @Autowired
-    private ScheduleEntryRepository scheduleEntryRepository;
+    private CafeCatalog cafeCatalog;
     @Autowired
-    private ScheduleMonthRepository scheduleMonthRepository;
+    private PurgeJobService purgeJobService;
 
     public List<CafeDto> getAllCafes() {
-        return cafeRepository.findAll().stream()
+        return cafeCatalog.getAll().stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public CafeDto createCafe(CafeDto dto) {
+        requireUniqueName(dto.getName(), null);
         Cafe cafe = Cafe.builder()
                 .name(dto.getName())
                 .address(dto.getAddress())
                 .phone(dto.getPhone())
                 .build();
         cafe = cafeRepository.save(cafe);
+        cafeCatalog.markChanged();
         return toDto(cafe);
     }
 
+    @Transactional
     public CafeDto updateCafe(Long id, CafeDto dto) {
+        if (!cafeCatalog.exists(id)) {
+            throw new ResourceNotFoundException("Cafe not found with id: " + id);
+        }
+        requireUniqueName(dto.getName(), id);
         Cafe cafe = cafeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cafe not found with id: " + id));
         cafe.setName(dto.getName());
         cafe.setAddress(dto.getAddress());
         cafe.setPhone(dto.getPhone());
         cafe = cafeRepository.save(cafe);
+        cafeCatalog.markChanged();
         return toDto(cafe);
     }
 
+    // Кафе пропадает из справочника сразу, расписание удаляет фоновое задание
     @Transactional
-    public void deleteCafe(Long id) {
+    public PurgeJobDto deleteCafe(Long id) {
+        if (!cafeCatalog.exists(id)) {
+            throw new ResourceNotFoundException("Cafe not found with id: " + id);
+        }
         Cafe cafe = cafeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cafe not found with id: " + id));
-        scheduleMonthRepository.findByCafeId(id).forEach(month -> {
-            scheduleEntryRepository.deleteAllByScheduleMonthIdAndCafeId(month.getId(), id);
-            scheduleMonthRepository.delete(month);
-        });
-        cafeRepository.delete(cafe);
+        cafe.setDeleted(true);
+        cafeCatalog.markChanged();
+        return purgeJobService.schedule(PurgeJob.Type.CAFE, id);
+    }
+
+    private void requireUniqueName(String name, Long id) {
+        cafeCatalog.findByName(name)
+                .filter(existing -> !existing.id().equals(id))
+                .ifPresent(existing -> {
+                    throw new RuntimeException("Cafe name is already taken!");
+                });
+    }
+
+    private CafeDto toDto(CafeCatalog.Entry entry) {
+        return CafeDto.builder()
+                .id(entry.id())
+                .name(entry.name())
+                .address(entry.address())
+                .phone(entry.phone())
+                .build();
     }
 
     private CafeDto toDto(Cafe cafe) {
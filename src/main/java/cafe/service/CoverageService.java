@@ -0,0 +1,217 @@
+package cafe.service;
+
+import cafe.dto.CoverageDto;
+import cafe.model.Role;
+import cafe.security.CurrentUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Укомплектованность считает БД: смены WORKING группируются по кафе, дню, должности и времени смены —
+// сущности смен не загружаются, а групп на порядок меньше, чем смен (у сотрудников одинаковые смены).
+// По часам группы раскладываются в памяти: разворачивать в часы каждую смену в SQL заметно дороже.
+// Утверждённый месяц не редактируется, поэтому его подсчёт кэшируется. Ключ включает версию месяца
+// (растёт при каждом сохранении и смене статуса): после отмены утверждения и правок старая запись
+// просто перестаёт запрашиваться. Недоукомплектованные часы считаются на каждый запрос — минимум задаётся в нём.
+@Service
+public class CoverageService {
+
+    private static final int HOURS = 24;
+    private static final String APPROVED_SQL =
+            "SELECT cafe_id, version FROM schedule_months WHERE year = ? AND month = ? AND approved AND cafe_id IN (%s)";
+    // На дату у сотрудника одна смена, поэтому число смен в группе — число сотрудников.
+    // Смена через полночь учитывается до конца своего дня
+    private static final String COVERAGE_SQL = """
+            SELECT e.cafe_id, extract(day FROM e.date)::int AS day, coalesce(u.position, '') AS position,
+                   extract(epoch FROM e.start_time)::int / 60 AS start_minute,
+                   CASE WHEN e.end_time > e.start_time THEN extract(epoch FROM e.end_time)::int / 60 ELSE 1440 END AS end_minute,
+                   count(*) AS working
+            FROM schedule_entries e
+            JOIN schedule_months m ON m.id = e.schedule_month_id
+            JOIN users u ON u.id = e.user_id
+            WHERE m.year = ? AND m.month = ? AND e.status = 'WORKING' AND NOT u.deleted AND e.cafe_id IN (%s)
+            GROUP BY e.cafe_id, e.date, u.position, e.start_time, e.end_time
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Value("${app.coverage.open-hour:8}")
+    private int openHour;
+    @Value("${app.coverage.close-hour:22}")
+    private int closeHour;
+    @Value("${app.coverage.min-staff:2}")
+    private int defaultMinStaff;
+    @Value("${app.coverage.cache-size:2000}")
+    private long cacheSize;
+    @Value("${app.coverage.cache-ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    private Cache<ApprovedMonth, List<CoverageDto.DayCoverage>> approvedMonths;
+
+    private record ApprovedMonth(long cafeId, YearMonth month, long version) {
+    }
+
+    @PostConstruct
+    void init() {
+        approvedMonths = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    // cafeId == null — все доступные кафе: USER_ADMIN — все, остальные — свои
+    public CoverageDto getCoverage(YearMonth month, Long cafeId, Integer minStaff) {
+        List<Long> cafeIds = cafeId != null ? List.of(cafeCatalog.require(cafeId).id()) : accessibleCafeIds();
+        int minimum = minStaff != null ? minStaff : defaultMinStaff;
+
+        Map<Long, Long> versions = approvedVersions(month, cafeIds);
+        Map<Long, List<CoverageDto.DayCoverage>> days = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : cafeIds) {
+            List<CoverageDto.DayCoverage> cached = versions.containsKey(id)
+                    ? approvedMonths.getIfPresent(new ApprovedMonth(id, month, versions.get(id)))
+                    : null;
+            if (cached != null) {
+                days.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(month, missing).forEach((id, loaded) -> {
+                days.put(id, loaded);
+                if (versions.containsKey(id)) {
+                    approvedMonths.put(new ApprovedMonth(id, month, versions.get(id)), loaded);
+                }
+            });
+        }
+
+        List<CoverageDto.CafeCoverage> cafes = new ArrayList<>();
+        for (Long id : cafeIds) {
+            List<CoverageDto.DayCoverage> cafeDays = days.get(id);
+            cafes.add(new CoverageDto.CafeCoverage(id, cafeCatalog.findById(id).map(CafeCatalog.Entry::name).orElse(null),
+                    versions.containsKey(id), cafeDays, gaps(cafeDays, minimum)));
+        }
+        return new CoverageDto(month.toString(), openHour, closeHour, minimum, cafes);
+    }
+
+    private List<Long> accessibleCafeIds() {
+        if (currentUser.hasRole(Role.ERole.USER_ADMIN)) {
+            return cafeCatalog.getAll().stream().map(CafeCatalog.Entry::id).toList();
+        }
+        return currentUser.cafeIds().stream().filter(cafeCatalog::exists).sorted().toList();
+    }
+
+    private Map<Long, Long> approvedVersions(YearMonth month, List<Long> cafeIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (cafeIds.isEmpty()) {
+            return versions;
+        }
+        List<Object> args = new ArrayList<>(List.of(month.getYear(), month.getMonthValue()));
+        args.addAll(cafeIds);
+        jdbcTemplate.query(APPROVED_SQL.formatted(placeholders(cafeIds)),
+                rs -> {
+                    versions.put(rs.getLong(1), rs.getLong(2));
+                },
+                args.toArray());
+        return versions;
+    }
+
+    private Map<Long, List<CoverageDto.DayCoverage>> load(YearMonth month, List<Long> cafeIds) {
+        int length = month.lengthOfMonth();
+        Map<Long, DayCounts[]> counts = new LinkedHashMap<>();
+        for (Long id : cafeIds) {
+            DayCounts[] cafeDays = new DayCounts[length];
+            for (int day = 0; day < length; day++) {
+                cafeDays[day] = new DayCounts();
+            }
+            counts.put(id, cafeDays);
+        }
+
+        List<Object> args = new ArrayList<>(List.of(month.getYear(), month.getMonthValue()));
+        args.addAll(cafeIds);
+        jdbcTemplate.query(COVERAGE_SQL.formatted(placeholders(cafeIds)), rs -> {
+            DayCounts day = counts.get(rs.getLong("cafe_id"))[rs.getInt("day") - 1];
+            String position = rs.getString("position");
+            int working = rs.getInt("working");
+            day.working += working;
+            day.byPosition.merge(position, working, Integer::sum);
+            // Час h занят, если смена пересекает [h:00, h+1:00)
+            int[] byPosition = day.hourlyByPosition.computeIfAbsent(position, p -> new int[HOURS]);
+            int end = rs.getInt("end_minute");
+            for (int hour = rs.getInt("start_minute") / 60; hour * 60 < end; hour++) {
+                day.hourly[hour] += working;
+                byPosition[hour] += working;
+            }
+        }, args.toArray());
+
+        Map<Long, List<CoverageDto.DayCoverage>> result = new LinkedHashMap<>();
+        counts.forEach((id, cafeDays) -> {
+            List<CoverageDto.DayCoverage> days = new ArrayList<>(length);
+            for (int day = 0; day < length; day++) {
+                DayCounts c = cafeDays[day];
+                days.add(new CoverageDto.DayCoverage(month.atDay(day + 1), c.working, c.byPosition, c.hourly,
+                        c.hourlyByPosition));
+            }
+            result.put(id, List.copyOf(days));
+        });
+        return result;
+    }
+
+    // Подряд идущие часы работы с нехваткой сотрудников объединяются в один интервал
+    private List<CoverageDto.Gap> gaps(List<CoverageDto.DayCoverage> days, int minStaff) {
+        List<CoverageDto.Gap> gaps = new ArrayList<>();
+        for (CoverageDto.DayCoverage day : days) {
+            int[] hourly = day.getHourly();
+            int from = -1;
+            int min = Integer.MAX_VALUE;
+            for (int hour = openHour; hour <= closeHour; hour++) {
+                boolean understaffed = hour < closeHour && hourly[hour] < minStaff;
+                if (understaffed) {
+                    if (from < 0) {
+                        from = hour;
+                        min = hourly[hour];
+                    } else {
+                        min = Math.min(min, hourly[hour]);
+                    }
+                } else if (from >= 0) {
+                    gaps.add(new CoverageDto.Gap(day.getDate(), from, hour, min));
+                    from = -1;
+                }
+            }
+        }
+        return gaps;
+    }
+
+    private static String placeholders(Collection<Long> ids) {
+        return ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+    }
+
+    private static final class DayCounts {
+        private int working;
+        private final Map<String, Integer> byPosition = new TreeMap<>();
+        private final int[] hourly = new int[HOURS];
+        private final Map<String, int[]> hourlyByPosition = new TreeMap<>();
+    }
+}
@@ -0,0 +1,44 @@
+package cafe.service;
+
+import cafe.model.Cafe;
+import cafe.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Кэш второго уровня локален для экземпляра: изменения, сделанные другими экземплярами,
+// Hibernate не видит — соответствующие регионы сбрасываются по сообщениям InvalidationBus.
+// Роли (READ_ONLY) не меняются и не сбрасываются.
+@Component
+public class EntityCacheInvalidator {
+
+    private static final String USER_ROLES = User.class.getName() + ".roles";
+    private static final String USER_CAFES = User.class.getName() + ".cafes";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    public void onInvalidation(InvalidationBus.Message message) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        switch (message.type()) {
+            case ALL -> cache.evictAllRegions();
+            case CAFES -> {
+                cache.evictEntityData(Cafe.class);
+                cache.evictCollectionData(USER_CAFES);
+                cache.evictDefaultQueryRegion();
+            }
+            case USER -> {
+                cache.evictEntityData(User.class, message.userId());
+                cache.evictCollectionData(USER_ROLES, message.userId());
+                cache.evictCollectionData(USER_CAFES, message.userId());
+                cache.evictDefaultQueryRegion();
+            }
+            case NEW_USERS -> cache.evictDefaultQueryRegion();
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cafe.service;
+
+import cafe.dto.HomeDto;
+import cafe.dto.NewsFeedDto;
+import cafe.dto.NextShiftDto;
+import cafe.profiling.RequestProfile;
+import cafe.repository.ScheduleMonthRepository;
+import cafe.security.CurrentUser;
+import cafe.security.UserDetailsImpl;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Главный экран: части, которым нужна БД, запускаются одновременно на виртуальных потоках,
+// поэтому ответ занимает время самой медленной части, а не сумму. У каждой части свой таймаут:
+// не успевшая часть попадает в unavailable, остальные возвращаются как есть.
+// Контекст безопасности передаётся в потоки (CurrentUser работает как в запросе).
+@Service
+@Timed(value = "cafe.service", histogram = true)
+public class HomeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeService.class);
+
+    @Autowired
+    private ScheduleService scheduleService;
+    @Autowired
+    private ScheduleMonthRepository scheduleMonthRepository;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private CurrentUser currentUser;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.home.next-shift-timeout-ms:800}")
+    private long nextShiftTimeoutMs;
+    @Value("${app.home.approvals-timeout-ms:800}")
+    private long approvalsTimeoutMs;
+    @Value("${app.home.news-timeout-ms:300}")
+    private long newsTimeoutMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public HomeDto getHome() {
+        UserDetailsImpl me = currentUser.get();
+        YearMonth month = YearMonth.now();
+
+        CompletableFuture<NextShiftDto> nextShift = component(scheduleService::getMyNextShift, nextShiftTimeoutMs);
+        CompletableFuture<List<HomeDto.CafeApproval>> approvals = component(() -> approvals(me.getCafeIds(), month), approvalsTimeoutMs);
+        CompletableFuture<NewsFeedDto> news = component(() -> newsService.getFeedFirstPage().page(), newsTimeoutMs);
+
+        List<String> unavailable = new ArrayList<>();
+        return new HomeDto(SyncBundleService.profile(me),
+                result(nextShift, "nextShift", unavailable),
+                month.toString(),
+                result(approvals, "approvals", unavailable),
+                result(news, "news", unavailable),
+                unavailable);
+    }
+
+    private List<HomeDto.CafeApproval> approvals(Set<Long> cafeIds, YearMonth month) {
+        List<CafeCatalog.Entry> cafes = cafeIds.stream()
+                .map(cafeCatalog::findById)
+                .flatMap(Optional::stream)
+                .sorted(Comparator.comparing(CafeCatalog.Entry::id))
+                .toList();
+        if (cafes.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> approved = new HashSet<>(scheduleMonthRepository.findApprovedCafeIds(
+                month.getYear(), month.getMonthValue(), cafes.stream().map(CafeCatalog.Entry::id).toList()));
+        return cafes.stream()
+                .map(cafe -> new HomeDto.CafeApproval(cafe.id(), cafe.name(), approved.contains(cafe.id())))
+                .toList();
+    }
+
+    private <T> CompletableFuture<T> component(Supplier<T> task, long timeoutMs) {
+        return CompletableFuture.supplyAsync(RequestProfile.propagate(task), executor)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Опоздавшая часть дорабатывает в своём потоке, но в ответ уже не попадает
+    private <T> T result(CompletableFuture<T> future, String name, List<String> unavailable) {
+        try {
+            return future.join();
+        } catch (RuntimeException e) {
+            logger.warn("Home component {} unavailable: {}", name, String.valueOf(e.getCause()));
+            meterRegistry.counter("home.component.unavailable", "component", name).increment();
+            unavailable.add(name);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package cafe.service;
+
+import cafe.dto.ScheduleChangeDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+// Шина инвалидации локальных кэшей между экземплярами приложения на Postgres LISTEN/NOTIFY.
+// publish вызывается в транзакции изменения: NOTIFY транзакционный, другие экземпляры получат
+// сообщение только после коммита, а при откате — не получат вовсе. Свой экземпляр сообщения
+// пропускает: локальные кэши он обновляет сам после коммита.
+// Полученные сообщения публикуются как события Spring (InvalidationBus.Message) — кэши подписываются
+// через @EventListener. После переподключения пропущенные сообщения не восстановить,
+// поэтому рассылается Message.all(): сбросить всё.
+@Component
+public class InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+    private static final String CHANNEL = "cafe_invalidation";
+    // Ограничение Postgres на payload — 8000 байт
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.invalidation.enabled:true}")
+    private boolean enabled;
+    @Value("${app.invalidation.check-interval-ms:10000}")
+    private int checkIntervalMs;
+    @Value("${app.invalidation.reconnect-delay-ms:2000}")
+    private long reconnectDelayMs;
+    @Value("${spring.datasource.url}")
+    private String url;
+    @Value("${spring.datasource.username}")
+    private String username;
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    private volatile boolean running;
+    private Thread listener;
+
+    public enum Type {
+        // Сбросить все локальные кэши (после потери соединения)
+        ALL,
+        // Справочник кафе и кафе в кэше второго уровня
+        CAFES,
+        // Первая страница ленты новостей
+        NEWS,
+        // Пользователь userId: сущность, роли и кафе в кэше второго уровня
+        USER,
+        // Появились новые пользователи: закэшированные результаты запросов устарели
+        NEW_USERS,
+        // Изменилось расписание месяца кафе — для SSE-подписчиков на других экземплярах
+        SCHEDULE
+    }
+
+    public record Message(Type type, Long userId, ScheduleChangeDto change) {
+
+        public static Message all() {
+            return new Message(Type.ALL, null, null);
+        }
+
+        public static Message cafes() {
+            return new Message(Type.CAFES, null, null);
+        }
+
+        public static Message news() {
+            return new Message(Type.NEWS, null, null);
+        }
+
+        public static Message user(Long userId) {
+            return new Message(Type.USER, userId, null);
+        }
+
+        public static Message newUsers() {
+            return new Message(Type.NEW_USERS, null, null);
+        }
+
+        public static Message schedule(ScheduleChangeDto change) {
+            return new Message(Type.SCHEDULE, null, change);
+        }
+
+        public boolean affects(Type type) {
+            return this.type == type || this.type == Type.ALL;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    public void publish(Message message) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, encode(message));
+    }
+
+    private void listen() {
+        boolean reconnected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+                if (reconnected) {
+                    eventPublisher.publishEvent(Message.all());
+                }
+                reconnected = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(checkIntervalMs);
+                    if (notifications == null || notifications.length == 0) {
+                        // Без сообщений проверяем, что соединение живо
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Invalidation listener disconnected, reconnecting: {}", e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split(" ", 3);
+        if (parts.length < 2 || parts[0].equals(origin)) {
+            return;
+        }
+        try {
+            Type type = Type.valueOf(parts[1]);
+            String argument = parts.length > 2 ? parts[2] : null;
+            Message message = switch (type) {
+                case USER -> Message.user(Long.valueOf(argument));
+                case SCHEDULE -> Message.schedule(objectMapper.readValue(argument, ScheduleChangeDto.class));
+                default -> new Message(type, null, null);
+            };
+            eventPublisher.publishEvent(message);
+        } catch (Exception e) {
+            logger.warn("Failed to apply invalidation '{}'", payload, e);
+        }
+    }
+
+    // Формат: "<экземпляр> <тип> [userId | JSON изменения расписания]"
+    private String encode(Message message) {
+        String prefix = origin + " " + message.type();
+        return switch (message.type()) {
+            case USER -> prefix + " " + message.userId();
+            case SCHEDULE -> prefix + " " + scheduleJson(message.change());
+            default -> prefix;
+        };
+    }
+
+    // Длинный список пользователей не помещается в NOTIFY — подписчики перечитают весь месяц
+    private String scheduleJson(ScheduleChangeDto change) {
+        try {
+            String json = objectMapper.writeValueAsString(change);
+            if (json.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+                return json;
+            }
+            return objectMapper.writeValueAsString(new ScheduleChangeDto(change.getCafeId(), change.getMonth(),
+                    change.getVersion(), null, change.isApproved()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to encode schedule change", e);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -1,24 +1,55 @@
 package cafe.service;
 
 import cafe.dto.NewsDto;
+import cafe.dto.NewsFeedDto;
+import cafe.dto.NewsSearchHitDto;
+import cafe.dto.NewsSearchPageDto;
+import cafe.dto.NewsSummaryDto;
 import cafe.exception.ResourceNotFoundException;
 import cafe.model.News;
 import cafe.repository.NewsRepository;
+import cafe.repository.NewsSearchRow;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class NewsService {
 
+    public static final int FEED_PAGE_SIZE = 20;
+
     @Autowired
     private NewsRepository newsRepository;
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${app.news.search.max-candidates:5000}")
+    private int searchMaxCandidates;
+
+    // Первая страница ленты: неизменяемый снимок, пересобирается после коммита изменений новостей
+    private final AtomicReference<FeedSnapshot> firstPage = new AtomicReference<>();
+    private final AtomicLong feedVersion = new AtomicLong();
+
+    public record FeedSnapshot(long version, String etag, NewsFeedDto page) {
+    }
 
     public List<NewsDto> getAll() {
         return newsRepository.findAll(Sort.by(Sort.Direction.DESC, "publishedAt"))
@@ -31,6 +62,95 @@ public class NewsService {
         return getAll();
     }
 
+    public FeedSnapshot getFeedFirstPage() {
+        FeedSnapshot snapshot = firstPage.get();
+        return snapshot != null ? snapshot : rebuildFeedFirstPage();
+    }
+
+    public NewsFeedDto getFeed(String cursor, int limit) {
+        if (cursor == null || cursor.isBlank()) {
+            return limit == FEED_PAGE_SIZE ? getFeedFirstPage().page() : loadFeedPage(null, null, limit);
+        }
+        int separator = cursor.lastIndexOf('_');
+        try {
+            return loadFeedPage(Instant.parse(cursor.substring(0, separator)), Long.parseLong(cursor.substring(separator + 1)), limit);
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private FeedSnapshot rebuildFeedFirstPage() {
+        long version = feedVersion.get();
+        NewsFeedDto page = loadFeedPage(null, null, FEED_PAGE_SIZE);
+        FeedSnapshot snapshot = new FeedSnapshot(version, etag(page), page);
+        // Снимок, собранный до более позднего изменения, не должен вытеснить свежий
+        return firstPage.accumulateAndGet(snapshot,
+                (current, next) -> current == null || current.version() <= next.version() ? next : current);
+    }
+
+    private void rebuildFeedAfterCommit() {
+        invalidationBus.publish(InvalidationBus.Message.news());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                feedVersion.incrementAndGet();
+                rebuildFeedFirstPage();
+            }
+        });
+    }
+
+    @EventListener
+    public void onInvalidation(InvalidationBus.Message message) {
+        if (message.affects(InvalidationBus.Type.NEWS)) {
+            feedVersion.incrementAndGet();
+            rebuildFeedFirstPage();
+        }
+    }
+
+    private NewsFeedDto loadFeedPage(Instant beforePublishedAt, Long beforeId, int limit) {
+        List<NewsSummaryDto> items = beforePublishedAt == null
+                ? newsRepository.findFeed(Limit.of(limit + 1))
+                : newsRepository.findFeedBefore(beforePublishedAt, beforeId, Limit.of(limit + 1));
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            NewsSummaryDto last = items.get(limit - 1);
+            nextCursor = last.getPublishedAt() + "_" + last.getId();
+        }
+        items.forEach(item -> item.setExcerpt(excerpt(item.getExcerpt())));
+        return new NewsFeedDto(List.copyOf(items), nextCursor);
+    }
+
+    private static String excerpt(String head) {
+        if (head == null || head.length() <= NewsRepository.EXCERPT_LENGTH) {
+            return head;
+        }
+        return head.substring(0, NewsRepository.EXCERPT_LENGTH).stripTrailing() + "…";
+    }
+
+    // ETag зависит только от содержимого страницы — совпадает на всех экземплярах приложения
+    private static String etag(NewsFeedDto page) {
+        CRC32 crc = new CRC32();
+        for (NewsSummaryDto item : page.getItems()) {
+            crc.update((item.getId() + "|" + item.getPublishedAt() + "|" + item.getTitle() + "|" + item.getExcerpt() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return "\"news-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    public NewsSearchPageDto search(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        List<NewsSearchRow> rows = newsRepository.search(query.trim(), searchMaxCandidates, size + 1, page * size);
+        boolean hasMore = rows.size() > size;
+        List<NewsSearchHitDto> items = rows.stream()
+                .limit(size)
+                .map(row -> new NewsSearchHitDto(row.getId(), row.getTitle(), row.getSnippet(), row.getPublishedAt(), row.getRank()))
+                .collect(Collectors.toList());
+        return new NewsSearchPageDto(items, page, hasMore);
+    }
+
     public NewsDto getById(Long id) {
         News news = newsRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("News not found with id: " + id));
@@ -45,6 +165,7 @@ public class NewsService {
                 .publishedAt(Instant.now())
                 .build();
         news = newsRepository.save(news);
+        rebuildFeedAfterCommit();
         return toDto(news);
     }
 
@@ -55,6 +176,7 @@ public class NewsService {
         news.setTitle(dto.getTitle());
         news.setContent(dto.getContent());
         news = newsRepository.save(news);
+        rebuildFeedAfterCommit();
         return toDto(news);
     }
 
@@ -62,6 +184,7 @@ public class NewsService {
     public void delete(Long id) {
         try {
             newsRepository.deleteById(id);
+            rebuildFeedAfterCommit();
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("News not found with id: " + id);
         }
@@ -0,0 +1,230 @@
+package cafe.service;
+
+import cafe.dto.PurgeJobDto;
+import cafe.exception.ResourceNotFoundException;
+import cafe.model.PurgeJob;
+import cafe.repository.CafeRepository;
+import cafe.repository.PurgeJobRepository;
+import cafe.repository.ScheduleEntryRepository;
+import cafe.repository.ScheduleMonthRepository;
+import cafe.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+// Фоновая очистка удалённых кафе и пользователей. Запрос на удаление только помечает запись
+// и ставит задание; смены удаляются порциями, каждая в своей короткой транзакции,
+// чтобы не держать блокировки и не раздувать одну транзакцию на сотни тысяч строк.
+@Service
+public class PurgeJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeJobService.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+    @Autowired
+    private ScheduleEntryRepository scheduleEntryRepository;
+    @Autowired
+    private ScheduleMonthRepository scheduleMonthRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private InvalidationBus invalidationBus;
+    @Autowired
+    private ScheduleChangeLog scheduleChangeLog;
+    @Autowired
+    private ScheduleSummaryService scheduleSummaryService;
+    @Autowired
+    private CafeRepository cafeRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.purge.chunk-size:5000}")
+    private int chunkSize;
+    // Задание в статусе RUNNING без прогресса дольше этого считается брошенным и перезапускается
+    @Value("${app.purge.stale-after-ms:300000}")
+    private long staleAfterMs;
+    // Повторы после сбоя: задержка удваивается от начальной до максимальной, после max-attempts — FAILED
+    @Value("${app.purge.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${app.purge.retry-initial-delay-ms:10000}")
+    private long retryInitialDelayMs;
+    @Value("${app.purge.retry-max-delay-ms:600000}")
+    private long retryMaxDelayMs;
+
+    // Вызывается в транзакции мягкого удаления: задание появляется вместе с пометкой deleted
+    public PurgeJobDto schedule(PurgeJob.Type type, Long targetId) {
+        return toDto(purgeJobRepository.save(new PurgeJob(type, targetId)));
+    }
+
+    public PurgeJobDto getJob(Long id) {
+        return purgeJobRepository.findById(id)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found with id: " + id));
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.poll-interval-ms:2000}")
+    public void processPendingJobs() {
+        Long jobId;
+        while ((jobId = claimNextJob()) != null) {
+            runJob(jobId);
+        }
+    }
+
+    private Long claimNextJob() {
+        Instant now = Instant.now();
+        return transactionTemplate.execute(status -> purgeJobRepository.lockNextJob(now, now.minusMillis(staleAfterMs))
+                .map(job -> {
+                    job.setStatus(PurgeJob.Status.RUNNING);
+                    job.setNextAttemptAt(null);
+                    if (job.getTotalItems() == null) {
+                        job.setTotalItems(countItems(job));
+                    }
+                    job.setUpdatedAt(Instant.now());
+                    return job.getId();
+                })
+                .orElse(null));
+    }
+
+    private void runJob(Long jobId) {
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> {
+                    PurgeJob job = purgeJobRepository.findById(jobId).orElseThrow();
+                    int count = deleteChunk(job);
+                    job.setProcessedItems(job.getProcessedItems() + count);
+                    job.setUpdatedAt(Instant.now());
+                    return count;
+                });
+            } while (deleted > 0);
+            do {
+                deleted = transactionTemplate.execute(status -> {
+                    PurgeJob job = purgeJobRepository.findById(jobId).orElseThrow();
+                    // Прогресс отмечается и здесь, иначе длинная пометка журнала выглядит брошенным заданием;
+                    // сброс до пометки — блокировка журнала остаётся последним запросом транзакции
+                    job.setUpdatedAt(Instant.now());
+                    purgeJobRepository.flush();
+                    return markChangesDeletedChunk(job);
+                });
+            } while (deleted > 0);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                PurgeJob job = purgeJobRepository.findById(jobId).orElseThrow();
+                deleteTarget(job);
+                job.setStatus(PurgeJob.Status.DONE);
+                job.setError(null);
+                job.setFinishedAt(Instant.now());
+                job.setUpdatedAt(job.getFinishedAt());
+                logger.info("Purge job {} done: {} {}, {} schedule entries removed",
+                        jobId, job.getType(), job.getTargetId(), job.getProcessedItems());
+            });
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> purgeJobRepository.findById(jobId).ifPresent(job -> {
+                job.setAttempts(job.getAttempts() + 1);
+                job.setError(truncate(String.valueOf(e.getMessage())));
+                job.setUpdatedAt(Instant.now());
+                if (job.getAttempts() >= maxAttempts) {
+                    logger.error("Purge job {} failed after {} attempts", jobId, job.getAttempts(), e);
+                    job.setStatus(PurgeJob.Status.FAILED);
+                } else {
+                    // Уже удалённые порции не повторяются: задание продолжает с того места, где остановилось
+                    long delay = Math.min(retryMaxDelayMs, retryInitialDelayMs << Math.min(job.getAttempts() - 1, 20));
+                    logger.warn("Purge job {} failed (attempt {} of {}), retrying in {} ms",
+                            jobId, job.getAttempts(), maxAttempts, delay, e);
+                    job.setStatus(PurgeJob.Status.PENDING);
+                    job.setNextAttemptAt(job.getUpdatedAt().plusMillis(delay));
+                }
+            }));
+        }
+    }
+
+    // Ручной перезапуск задания, исчерпавшего попытки (например, после исправления данных)
+    public PurgeJobDto retry(Long id) {
+        return transactionTemplate.execute(status -> {
+            PurgeJob job = purgeJobRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Job not found with id: " + id));
+            if (job.getStatus() != PurgeJob.Status.FAILED) {
+                throw new IllegalStateException("Only failed jobs can be retried");
+            }
+            job.setStatus(PurgeJob.Status.PENDING);
+            job.setAttempts(0);
+            job.setNextAttemptAt(null);
+            job.setUpdatedAt(Instant.now());
+            return toDto(job);
+        });
+    }
+
+    private long countItems(PurgeJob job) {
+        return switch (job.getType()) {
+            case CAFE -> scheduleEntryRepository.countByCafeId(job.getTargetId());
+            case USER -> scheduleEntryRepository.countByUserId(job.getTargetId());
+        };
+    }
+
+    private int deleteChunk(PurgeJob job) {
+        return switch (job.getType()) {
+            case CAFE -> scheduleEntryRepository.deleteChunkByCafeId(job.getTargetId(), chunkSize);
+            case USER -> scheduleEntryRepository.deleteChunkByUserId(job.getTargetId(), chunkSize);
+        };
+    }
+
+    // Смены удалённого кафе остаются в журнале синхронизации как удаления — клиенты уберут их у себя;
+    // смены удалённого сотрудника помечаются удалёнными в deleteTarget
+    private int markChangesDeletedChunk(PurgeJob job) {
+        return job.getType() == PurgeJob.Type.CAFE ? scheduleChangeLog.markCafeDeletedChunk(job.getTargetId(), chunkSize) : 0;
+    }
+
+    // Смен уже нет: остаются месяцы, связи и сама запись
+    private void deleteTarget(PurgeJob job) {
+        Long id = job.getTargetId();
+        switch (job.getType()) {
+            case CAFE -> {
+                scheduleMonthRepository.deleteAllByCafeId(id);
+                scheduleSummaryService.deleteByCafeId(id);
+                scheduleChangeLog.rememberCafeAccess(id);
+                userRepository.deleteCafeLinks(id);
+                cafeRepository.deleteAllByIdInBatch(List.of(id));
+                invalidationBus.publish(InvalidationBus.Message.cafes());
+            }
+            case USER -> {
+                scheduleMonthRepository.clearApprovedBy(id);
+                scheduleChangeLog.markUserDeleted(id);
+                scheduleSummaryService.deleteByUserId(id);
+                userRepository.deleteUserCafeLinks(id);
+                userRepository.deleteUserRoleLinks(id);
+                userRepository.deleteAllByIdInBatch(List.of(id));
+                invalidationBus.publish(InvalidationBus.Message.user(id));
+            }
+        }
+    }
+
+    private String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private PurgeJobDto toDto(PurgeJob job) {
+        return PurgeJobDto.builder()
+                .id(job.getId())
+                .type(job.getType().name())
+                .targetId(job.getTargetId())
+                .status(job.getStatus().name())
+                .totalItems(job.getTotalItems())
+                .processedItems(job.getProcessedItems())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(job.getError())
+                .attempts(job.getAttempts())
+                .nextAttemptAt(job.getNextAttemptAt())
+                .build();
+    }
+}
@@ -0,0 +1,243 @@
+package cafe.service;
+
+import cafe.dto.ScheduleChangesDto;
+import cafe.model.ScheduleEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Журнал изменений смен для инкрементальной синхронизации (GET /api/schedule/changes).
+// Ключ — (кафе, сотрудник, дата): на дату у сотрудника в кафе не больше одной смены, а id записей
+// меняются при каждом сохранении. Для ключа хранится только последнее состояние с новым seq —
+// вытесненные изменения сжимаются при записи; удаление остаётся строкой deleted = true.
+// seq выдаётся под транзакционной advisory-блокировкой: транзакции журнала коммитятся в порядке seq,
+// и клиент, получивший seq = N, уже не увидит позже изменение с seq < N. Запись в журнал откладывается
+// на самый конец транзакции (beforeCommit), чтобы общая блокировка держалась только до коммита.
+@Component
+public class ScheduleChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleChangeLog.class);
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(hashtext('schedule_changes'))";
+    private static final String HORIZON = "schedule-changes-horizon";
+    private static final String UPSERT = """
+            INSERT INTO schedule_changes (cafe_id, user_id, entry_date, seq, deleted, start_time, end_time, status, changed_at)
+            VALUES (?, ?, ?, nextval('schedule_change_seq'), ?, ?, ?, ?, now())
+            ON CONFLICT (cafe_id, user_id, entry_date) DO UPDATE SET seq = EXCLUDED.seq, deleted = EXCLUDED.deleted,
+                start_time = EXCLUDED.start_time, end_time = EXCLUDED.end_time, status = EXCLUDED.status,
+                changed_at = EXCLUDED.changed_at
+            """;
+    private static final String SELECT = """
+            SELECT seq, cafe_id, user_id, entry_date, deleted, start_time, end_time, status
+            FROM schedule_changes WHERE seq > ? AND
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.schedule-changes.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    public record Shift(Long userId, LocalDate date, LocalTime startTime, LocalTime endTime, ScheduleEntry.Status status) {
+
+        public static Shift of(ScheduleEntry entry) {
+            return new Shift(entry.getUser().getId(), entry.getDate(), entry.getStartTime(), entry.getEndTime(), entry.getStatus());
+        }
+
+        private String key() {
+            return userId + "/" + date;
+        }
+    }
+
+    private static final RowMapper<ScheduleChangesDto.Change> CHANGE_MAPPER = (rs, rowNum) -> {
+        Time start = rs.getTime("start_time");
+        Time end = rs.getTime("end_time");
+        String status = rs.getString("status");
+        return new ScheduleChangesDto.Change(rs.getLong("seq"), rs.getLong("cafe_id"), rs.getLong("user_id"),
+                rs.getDate("entry_date").toLocalDate(), rs.getBoolean("deleted"),
+                start != null ? start.toLocalTime() : null, end != null ? end.toLocalTime() : null,
+                status != null ? ScheduleEntry.Status.valueOf(status) : null);
+    };
+
+    // Вызывается в транзакции сохранения. Возвращает сотрудников, у которых смены действительно изменились;
+    // сами строки журнала пишутся перед коммитом
+    public Set<Long> record(Long cafeId, Collection<Shift> before, Collection<Shift> after) {
+        Map<String, Shift> previous = before.stream().collect(Collectors.toMap(Shift::key, s -> s, (a, b) -> a));
+        List<Object[]> rows = new ArrayList<>();
+        Set<Long> changedUserIds = new LinkedHashSet<>();
+        for (Shift shift : after) {
+            if (!shift.equals(previous.remove(shift.key()))) {
+                rows.add(new Object[]{cafeId, shift.userId(), Date.valueOf(shift.date()), false,
+                        Time.valueOf(shift.startTime()), Time.valueOf(shift.endTime()), shift.status().name()});
+                changedUserIds.add(shift.userId());
+            }
+        }
+        for (Shift removed : previous.values()) {
+            rows.add(new Object[]{cafeId, removed.userId(), Date.valueOf(removed.date()), true, null, null, null});
+            changedUserIds.add(removed.userId());
+        }
+        if (!rows.isEmpty()) {
+            beforeCommit(() -> jdbcTemplate.batchUpdate(UPSERT, rows));
+        }
+        return changedUserIds;
+    }
+
+    // Последнее, что делает транзакция: сначала сбрасываются изменения Hibernate, затем берётся блокировка
+    private void beforeCommit(Runnable write) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entityManager.flush();
+                jdbcTemplate.queryForList(LOCK);
+                write.run();
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public ScheduleChangesDto changesForUser(Long userId, long since, int limit) {
+        return read("user_id = ?", List.of(userId), since, limit);
+    }
+
+    // Удаления по удалённым кафе — только тем, кто был к ним привязан: связь с кафе удаляется вместе с ним
+    @Transactional(readOnly = true)
+    public ScheduleChangesDto changesForCafes(Long userId, Set<Long> cafeIds, long since, int limit) {
+        String removed = "deleted AND cafe_id IN (SELECT cafe_id FROM removed_cafe_access WHERE user_id = ?)";
+        List<Long> args = new ArrayList<>(cafeIds);
+        args.add(userId);
+        if (cafeIds.isEmpty()) {
+            return read(removed, args, since, limit);
+        }
+        String in = cafeIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        return read("(cafe_id IN (" + in + ") OR " + removed + ")", args, since, limit);
+    }
+
+    private ScheduleChangesDto read(String filter, List<Long> filterArgs, long since, int limit) {
+        if (since > 0 && since < horizon()) {
+            return new ScheduleChangesDto(List.of(), 0, false, true);
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(since);
+        args.addAll(filterArgs);
+        args.add(limit + 1);
+        List<ScheduleChangesDto.Change> changes = jdbcTemplate.query(
+                SELECT + filter + " ORDER BY seq LIMIT ?", CHANGE_MAPPER, args.toArray());
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return new ScheduleChangesDto(changes, nextSince, hasMore, false);
+    }
+
+    // Смены удалённого сотрудника становятся удалениями: клиенты уберут их при следующей синхронизации
+    public void markUserDeleted(Long userId) {
+        beforeCommit(() -> jdbcTemplate.update("""
+                UPDATE schedule_changes SET seq = nextval('schedule_change_seq'), deleted = true,
+                    start_time = NULL, end_time = NULL, status = NULL, changed_at = now()
+                WHERE user_id = ? AND NOT deleted
+                """, userId));
+    }
+
+    // Вызывается при очистке кафе до удаления его связей с пользователями
+    public void rememberCafeAccess(Long cafeId) {
+        jdbcTemplate.update("""
+                INSERT INTO removed_cafe_access (user_id, cafe_id, removed_at)
+                SELECT user_id, cafe_id, now() FROM user_cafes WHERE cafe_id = ?
+                ON CONFLICT (user_id, cafe_id) DO NOTHING
+                """, cafeId);
+    }
+
+    // Смены удалённого кафе становятся удалениями порциями; дальше их чистит обычное хранение удалений.
+    // Вызывается в отдельной короткой транзакции, где это последний запрос
+    public int markCafeDeletedChunk(Long cafeId, int limit) {
+        jdbcTemplate.queryForList(LOCK);
+        return jdbcTemplate.update("""
+                UPDATE schedule_changes SET seq = nextval('schedule_change_seq'), deleted = true,
+                    start_time = NULL, end_time = NULL, status = NULL, changed_at = now()
+                WHERE ctid IN (SELECT ctid FROM schedule_changes WHERE cafe_id = ? AND NOT deleted LIMIT ?)
+                """, cafeId, limit);
+    }
+
+    // Смены, записанные в обход сервиса (начальное заполнение, генератор данных, первый запуск на существующих
+    // данных), попадают в журнал как изменения: иначе since=0 не вернул бы текущее расписание целиком.
+    // Запускается после CommandLineRunner'ов, которые и пишут такие смены
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillMissing() {
+        jdbcTemplate.queryForList(LOCK);
+        int added = jdbcTemplate.update("""
+                INSERT INTO schedule_changes (cafe_id, user_id, entry_date, seq, deleted, start_time, end_time, status, changed_at)
+                SELECT cafe_id, user_id, date, nextval('schedule_change_seq'), false, start_time, end_time, status, now()
+                FROM (SELECT DISTINCT ON (e.cafe_id, e.user_id, e.date) e.cafe_id, e.user_id, e.date,
+                             e.start_time, e.end_time, e.status
+                      FROM schedule_entries e
+                      WHERE NOT EXISTS (SELECT 1 FROM schedule_changes c
+                                        WHERE c.cafe_id = e.cafe_id AND c.user_id = e.user_id
+                                          AND c.entry_date = e.date AND NOT c.deleted)
+                      ORDER BY e.cafe_id, e.user_id, e.date, e.start_time) missing
+                ON CONFLICT (cafe_id, user_id, entry_date) DO UPDATE SET seq = EXCLUDED.seq, deleted = false,
+                    start_time = EXCLUDED.start_time, end_time = EXCLUDED.end_time, status = EXCLUDED.status,
+                    changed_at = EXCLUDED.changed_at
+                """);
+        if (added > 0) {
+            logger.info("Schedule change log backfilled with {} shifts", added);
+        }
+    }
+
+    // Старые удаления больше не хранятся; клиент с since раньше горизонта получает resetRequired
+    @Scheduled(cron = "${app.schedule-changes.prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void pruneTombstones() {
+        Long pruned = jdbcTemplate.queryForObject("""
+                WITH removed AS (
+                    DELETE FROM schedule_changes WHERE deleted AND changed_at < now() - make_interval(days => ?)
+                    RETURNING seq)
+                SELECT max(seq) FROM removed
+                """, Long.class, tombstoneRetentionDays);
+        // Удаления кафе старше срока хранения уже вычищены — связи для их доставки больше не нужны
+        jdbcTemplate.update("DELETE FROM removed_cafe_access WHERE removed_at < now() - make_interval(days => ?)",
+                tombstoneRetentionDays);
+        if (pruned != null) {
+            jdbcTemplate.update("UPDATE catalog_versions SET version = greatest(version, ?) WHERE name = ?", pruned, HORIZON);
+            logger.info("Schedule change log pruned up to seq {}", pruned);
+        }
+    }
+
+    private long horizon() {
+        Long horizon = jdbcTemplate.queryForObject("SELECT version FROM catalog_versions WHERE name = ?", Long.class, HORIZON);
+        return horizon != null ? horizon : 0L;
+    }
+}
@@ -0,0 +1,151 @@
+package cafe.service;
+
+import cafe.dto.ScheduleGridDto;
+import cafe.model.ScheduleEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Таблица расписания (GET /api/schedule/grid) строится прямо из плоского результата запроса:
+// день, код статуса и минуты считает БД, строка сотрудника собирается в переиспользуемые массивы
+// и дописывается в общие int-массивы — объекты создаются только на сотрудника, не на смену.
+@Service
+public class ScheduleGridService {
+
+    private static final List<String> STATUSES = Arrays.stream(ScheduleEntry.Status.values()).map(Enum::name).toList();
+    private static final String MONTH_SQL = "SELECT id, approved FROM schedule_months WHERE cafe_id = ? AND year = ? AND month = ?";
+    private static final String CELLS_SQL = """
+            SELECT e.user_id, u.username, u.first_name, u.last_name, u.position,
+                   extract(day FROM e.date)::int,
+                   array_position(ARRAY[%s]::varchar[], e.status),
+                   (extract(epoch FROM e.start_time) / 60)::int,
+                   (extract(epoch FROM e.end_time) / 60)::int
+            FROM schedule_entries e
+            JOIN users u ON u.id = e.user_id
+            WHERE e.schedule_month_id = ? AND e.cafe_id = ? AND NOT u.deleted
+            ORDER BY e.user_id, e.date, e.start_time
+            """.formatted(STATUSES.stream().map(s -> "'" + s + "'").collect(Collectors.joining(", ")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+
+    private record MonthRow(long id, boolean approved) {
+    }
+
+    // Чтение не создаёт месяц: если расписания ещё нет, таблица пустая
+    public ScheduleGridDto getGrid(LocalDate monthDate, Long cafeId) {
+        cafeCatalog.require(cafeId);
+        YearMonth yearMonth = YearMonth.from(monthDate);
+        MonthRow month = jdbcTemplate.query(MONTH_SQL, rs -> rs.next() ? new MonthRow(rs.getLong(1), rs.getBoolean(2)) : null,
+                cafeId, yearMonth.getYear(), yearMonth.getMonthValue());
+
+        GridBuilder grid = new GridBuilder(yearMonth.lengthOfMonth());
+        if (month != null) {
+            jdbcTemplate.query(CELLS_SQL, grid, month.id(), cafeId);
+        }
+        return grid.build(cafeId, yearMonth, month != null && month.approved());
+    }
+
+    private static final class GridBuilder implements RowCallbackHandler {
+        private final int days;
+        private final List<ScheduleGridDto.Employee> employees = new ArrayList<>();
+        private final int[] rowStatus;
+        private final int[] rowStart;
+        private final int[] rowEnd;
+        private final IntBuffer statusRuns = new IntBuffer();
+        private final IntBuffer startMinutes = new IntBuffer();
+        private final IntBuffer endMinutes = new IntBuffer();
+        private long currentUserId = -1;
+
+        private GridBuilder(int days) {
+            this.days = days;
+            this.rowStatus = new int[days];
+            this.rowStart = new int[days];
+            this.rowEnd = new int[days];
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long userId = rs.getLong(1);
+            if (userId != currentUserId) {
+                flushRow();
+                currentUserId = userId;
+                employees.add(new ScheduleGridDto.Employee(userId, rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5)));
+            }
+            int day = rs.getInt(6) - 1;
+            // Одна ячейка на день: при нескольких сменах за дату берётся самая ранняя
+            if (rowStatus[day] == 0) {
+                rowStatus[day] = rs.getInt(7);
+                rowStart[day] = rs.getInt(8);
+                rowEnd[day] = rs.getInt(9);
+            }
+        }
+
+        private void flushRow() {
+            if (currentUserId < 0) {
+                return;
+            }
+            for (int day = 0; day < days; day++) {
+                int status = rowStatus[day];
+                if (statusRuns.size() > 0 && statusRuns.get(statusRuns.size() - 2) == status) {
+                    statusRuns.increment(statusRuns.size() - 1);
+                } else {
+                    statusRuns.add(status);
+                    statusRuns.add(1);
+                }
+                if (status != 0) {
+                    startMinutes.add(rowStart[day]);
+                    endMinutes.add(rowEnd[day]);
+                }
+            }
+            Arrays.fill(rowStatus, 0);
+        }
+
+        private ScheduleGridDto build(Long cafeId, YearMonth yearMonth, boolean approved) {
+            flushRow();
+            return new ScheduleGridDto(cafeId, yearMonth.toString(), approved, days, STATUSES, employees,
+                    statusRuns.toArray(), startMinutes.toArray(), endMinutes.toArray());
+        }
+    }
+
+    private static final class IntBuffer {
+        private int[] values = new int[256];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void increment(int index) {
+            values[index]++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package cafe.service;
 import cafe.dto.FullScheduleDto;
 import cafe.dto.MyScheduleDto;
 import cafe.dto.NextShiftDto;
-import cafe.exception.InsufficientPermissionsException;
+import cafe.dto.ScheduleChangeDto;
+import cafe.dto.ScheduleChangesDto;
 import cafe.exception.ResourceNotFoundException;
 import cafe.model.Cafe;
+import cafe.model.Role;
 import cafe.model.ScheduleEntry;
 import cafe.model.ScheduleMonth;
 import cafe.model.User;
@@ -13,20 +15,24 @@ import cafe.repository.CafeRepository;
 import cafe.repository.ScheduleEntryRepository;
 import cafe.repository.ScheduleMonthRepository;
 import cafe.repository.UserRepository;
+import cafe.security.CurrentUser;
+import cafe.security.UserDetailsImpl;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class ScheduleService {
     @Autowired
     private ScheduleEntryRepository scheduleEntryRepository;
@@ -36,12 +42,23 @@ public class ScheduleService {
     private UserRepository userRepository;
     @Autowired
     private CafeRepository cafeRepository;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private CurrentUser currentUser;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private InvalidationBus invalidationBus;
+    @Autowired
+    private ScheduleChangeLog scheduleChangeLog;
+    @Autowired
+    private ScheduleSummaryService scheduleSummaryService;
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Current user not found"));
+    // Существование кафе проверяется по справочнику в памяти, сущность — ссылка без SELECT
+    private Cafe requireCafe(Long cafeId) {
+        cafeCatalog.require(cafeId);
+        return cafeRepository.getReferenceById(cafeId);
     }
 
     private ScheduleMonth getOrCreateScheduleMonth(YearMonth yearMonth, Cafe cafe) {
@@ -49,25 +66,27 @@ public class ScheduleService {
                 .orElseGet(() -> scheduleMonthRepository.save(new ScheduleMonth(yearMonth, cafe)));
     }
 
+    // Принадлежность к кафе проверяется в контроллере (@cafeAccess)
     @Transactional
     public FullScheduleDto saveMySchedule(LocalDate monthDate, MyScheduleDto dto) {
-        User user = getCurrentUser();
-        Cafe cafe = cafeRepository.findById(dto.getCafeId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
-
-        if (!user.getCafes().contains(cafe)) {
-            throw new InsufficientPermissionsException("You are not assigned to this cafe");
-        }
+        User user = currentUser.reference();
+        Cafe cafe = requireCafe(dto.getCafeId());
 
         YearMonth yearMonth = YearMonth.from(monthDate);
         ScheduleMonth month = getOrCreateScheduleMonth(yearMonth, cafe);
 
-        if (month.isApproved()) {
+        long version = scheduleMonthRepository.incrementVersion(month.getId());
+        if (scheduleMonthRepository.isApproved(month.getId())) {
             throw new IllegalStateException("Schedule is approved and locked");
         }
 
         validateNoDuplicateDates(dto.getShifts().stream().map(s -> s.getDate()).toList());
 
+        List<ScheduleChangeLog.Shift> before = scheduleEntryRepository
+                .findByUserIdAndScheduleMonthIdAndCafeId(user.getId(), month.getId(), cafe.getId()).stream()
+                .map(ScheduleChangeLog.Shift::of)
+                .toList();
+        List<ScheduleChangeLog.Shift> after = new ArrayList<>();
         scheduleEntryRepository.deleteByUserIdAndScheduleMonthIdAndCafeId(user.getId(), month.getId(), cafe.getId());
         scheduleEntryRepository.flush();
 
@@ -88,48 +107,43 @@ public class ScheduleService {
             entry.setStatus(shift.getStatus());
             entry.setScheduleMonth(month);
             scheduleEntryRepository.save(entry);
+            after.add(new ScheduleChangeLog.Shift(user.getId(), shift.getDate(), shift.getStartTime(), shift.getEndTime(), shift.getStatus()));
         }
 
+        scheduleSummaryService.apply(cafe.getId(), yearMonth, before, after);
+        publishChange(month, version, scheduleChangeLog.record(cafe.getId(), before, after));
         return getMySchedule(monthDate, dto.getCafeId());
     }
 
     public FullScheduleDto getMySchedule(LocalDate monthDate, Long cafeId) {
-        User user = getCurrentUser();
-        Cafe cafe = cafeRepository.findById(cafeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
+        UserDetailsImpl me = currentUser.get();
+        Cafe cafe = requireCafe(cafeId);
 
         YearMonth yearMonth = YearMonth.from(monthDate);
         ScheduleMonth month = getOrCreateScheduleMonth(yearMonth, cafe);
 
-        List<ScheduleEntry> myEntries = scheduleEntryRepository.findByUserIdAndScheduleMonthIdAndCafeId(user.getId(), month.getId(), cafe.getId());
-        return new FullScheduleDto(cafeId, month.isApproved(), List.of(buildUserSchedule(user, myEntries)));
+        List<ScheduleEntry> myEntries = scheduleEntryRepository.findByUserIdAndScheduleMonthIdAndCafeId(me.getId(), month.getId(), cafe.getId());
+        return new FullScheduleDto(cafeId, month.isApproved(), List.of(buildUserSchedule(
+                me.getId(), me.getUsername(), me.getFirstName(), me.getLastName(), me.getPosition(), myEntries)));
     }
 
     public FullScheduleDto getAllSchedule(LocalDate monthDate, Long cafeId) {
         YearMonth yearMonth = YearMonth.from(monthDate);
-        Cafe cafe = cafeRepository.findById(cafeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
+        Cafe cafe = requireCafe(cafeId);
         ScheduleMonth month = getOrCreateScheduleMonth(yearMonth, cafe);
 
-        List<ScheduleEntry> allEntries = scheduleEntryRepository.findByScheduleMonthIdAndCafeId(month.getId(), cafe.getId());
-        Map<Long, List<ScheduleEntry>> grouped = allEntries.stream()
-                .collect(Collectors.groupingBy(e -> e.getUser().getId()));
-
-        List<FullScheduleDto.UserSchedule> userSchedules = grouped.values().stream()
-                .map(entries -> buildUserSchedule(entries.get(0).getUser(), entries))
-                .collect(Collectors.toList());
-
-        return new FullScheduleDto(cafeId, month.isApproved(), userSchedules);
+        List<ScheduleEntry> allEntries = scheduleEntryRepository.findByScheduleMonthIdAndCafeIdAndUserDeletedFalse(month.getId(), cafe.getId());
+        return new FullScheduleDto(cafeId, month.isApproved(), toUserSchedules(allEntries));
     }
 
     @Transactional
     public FullScheduleDto saveAllSchedule(LocalDate monthDate, FullScheduleDto dto) {
         YearMonth yearMonth = YearMonth.from(monthDate);
-        Cafe cafe = cafeRepository.findById(dto.getCafeId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
+        Cafe cafe = requireCafe(dto.getCafeId());
         ScheduleMonth month = getOrCreateScheduleMonth(yearMonth, cafe);
 
-        if (month.isApproved()) {
+        long version = scheduleMonthRepository.incrementVersion(month.getId());
+        if (scheduleMonthRepository.isApproved(month.getId())) {
             throw new IllegalStateException("Schedule is approved and locked");
         }
 
@@ -137,11 +151,17 @@ public class ScheduleService {
             validateNoDuplicateDates(userSchedule.getShifts().stream().map(s -> s.getDate()).toList());
         }
 
+        List<ScheduleChangeLog.Shift> before = scheduleEntryRepository
+                .findByScheduleMonthIdAndCafeId(month.getId(), cafe.getId()).stream()
+                .map(ScheduleChangeLog.Shift::of)
+                .toList();
+        List<ScheduleChangeLog.Shift> after = new ArrayList<>();
         scheduleEntryRepository.deleteAllByScheduleMonthIdAndCafeId(month.getId(), cafe.getId());
         scheduleEntryRepository.flush();
 
         for (FullScheduleDto.UserSchedule userSchedule : dto.getUserSchedules()) {
             User user = userRepository.findById(userSchedule.getUserId())
+                    .filter(u -> !u.isDeleted())
                     .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
             for (MyScheduleDto.Shift shift : userSchedule.getShifts()) {
@@ -154,38 +174,57 @@ public class ScheduleService {
                 entry.setStatus(shift.getStatus());
                 entry.setScheduleMonth(month);
                 scheduleEntryRepository.save(entry);
+                after.add(new ScheduleChangeLog.Shift(user.getId(), shift.getDate(), shift.getStartTime(), shift.getEndTime(), shift.getStatus()));
             }
         }
+        scheduleSummaryService.apply(cafe.getId(), yearMonth, before, after);
+        publishChange(month, version, scheduleChangeLog.record(cafe.getId(), before, after));
         return getAllSchedule(monthDate, dto.getCafeId());
     }
 
     @Transactional
     public FullScheduleDto approveSchedule(LocalDate monthDate, Long cafeId, boolean approved) {
         YearMonth yearMonth = YearMonth.from(monthDate);
-        Cafe cafe = cafeRepository.findById(cafeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
+        Cafe cafe = requireCafe(cafeId);
         ScheduleMonth month = getOrCreateScheduleMonth(yearMonth, cafe);
+        long version = scheduleMonthRepository.incrementVersion(month.getId());
         month.setApproved(approved);
-        month.setApprovedBy(getCurrentUser());
+        month.setApprovedBy(currentUser.reference());
         scheduleMonthRepository.save(month);
+        publishChange(month, version, Set.of());
         return getAllSchedule(monthDate, cafeId);
     }
 
+    // Подписчики SSE получат событие только после коммита (ScheduleStreamService)
+    // Локальным подписчикам — после коммита, подписчикам других экземпляров — через NOTIFY
+    private void publishChange(ScheduleMonth month, long version, Set<Long> userIds) {
+        ScheduleChangeDto change = new ScheduleChangeDto(month.getCafe().getId(), month.getYearMonth().toString(),
+                version, userIds, month.isApproved());
+        eventPublisher.publishEvent(change);
+        invalidationBus.publish(InvalidationBus.Message.schedule(change));
+    }
+
     public boolean isApproved(LocalDate monthDate, Long cafeId) {
         YearMonth yearMonth = YearMonth.from(monthDate);
-        Cafe cafe = cafeRepository.findById(cafeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe not found"));
-        return scheduleMonthRepository.findByYearAndMonthAndCafeId(yearMonth.getYear(), yearMonth.getMonthValue(), cafe.getId())
+        cafeCatalog.require(cafeId);
+        return scheduleMonthRepository.findByYearAndMonthAndCafeId(yearMonth.getYear(), yearMonth.getMonthValue(), cafeId)
                 .map(ScheduleMonth::isApproved)
                 .orElse(false);
     }
 
+    // Администратор кафе синхронизирует свои кафе целиком, остальные — только свои смены
+    public ScheduleChangesDto getChanges(long since, int limit) {
+        if (currentUser.hasRole(Role.ERole.CAFE_ADMIN)) {
+            return scheduleChangeLog.changesForCafes(currentUser.id(), currentUser.cafeIds(), since, limit);
+        }
+        return scheduleChangeLog.changesForUser(currentUser.id(), since, limit);
+    }
+
     public NextShiftDto getMyNextShift() {
-        User user = getCurrentUser();
         LocalDate today = LocalDate.now();
         List<ScheduleEntry> entries = scheduleEntryRepository
                 .findFirst1ByUserIdAndDateGreaterThanEqualAndStatusOrderByDateAscStartTimeAsc(
-                        user.getId(), today, ScheduleEntry.Status.WORKING);
+                        currentUser.id(), today, ScheduleEntry.Status.WORKING);
         if (entries == null || entries.isEmpty()) {
             return null;
         }
@@ -194,12 +233,21 @@ public class ScheduleService {
                 .date(e.getDate())
                 .startTime(e.getStartTime())
                 .endTime(e.getEndTime())
-                .cafeName(e.getCafe() != null ? e.getCafe().getName() : null)
+                .cafeName(e.getCafe() != null ? cafeCatalog.findById(e.getCafe().getId()).map(CafeCatalog.Entry::name).orElse(null) : null)
                 .daysUntil((long) (e.getDate().toEpochDay() - today.toEpochDay()))
                 .build();
     }
 
-    private void validateNoDuplicateDates(List<LocalDate> dates) {
+    static List<FullScheduleDto.UserSchedule> toUserSchedules(List<ScheduleEntry> entries) {
+        Map<Long, List<ScheduleEntry>> grouped = entries.stream()
+                .collect(Collectors.groupingBy(e -> e.getUser().getId()));
+
+        return grouped.values().stream()
+                .map(userEntries -> buildUserSchedule(userEntries.get(0).getUser(), userEntries))
+                .collect(Collectors.toList());
+    }
+
+    static void validateNoDuplicateDates(List<LocalDate> dates) {
         Set<LocalDate> unique = new java.util.HashSet<>();
         for (LocalDate d : dates) {
             if (!unique.add(d)) {
@@ -208,13 +256,19 @@ public class ScheduleService {
         }
     }
 
-    private FullScheduleDto.UserSchedule buildUserSchedule(User user, List<ScheduleEntry> entries) {
+    static FullScheduleDto.UserSchedule buildUserSchedule(User user, List<ScheduleEntry> entries) {
+        return buildUserSchedule(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                user.getPosition(), entries);
+    }
+
+    static FullScheduleDto.UserSchedule buildUserSchedule(Long userId, String username, String firstName, String lastName,
+                                                          String position, List<ScheduleEntry> entries) {
         FullScheduleDto.UserSchedule us = new FullScheduleDto.UserSchedule();
-        us.setUserId(user.getId());
-        us.setUsername(user.getUsername());
-        us.setFirstName(user.getFirstName());
-        us.setLastName(user.getLastName());
-        us.setPosition(user.getPosition());
+        us.setUserId(userId);
+        us.setUsername(username);
+        us.setFirstName(firstName);
+        us.setLastName(lastName);
+        us.setPosition(position);
         us.setShifts(entries.stream().map(e -> {
             MyScheduleDto.Shift s = new MyScheduleDto.Shift();
             s.setDate(e.getDate());
@@ -0,0 +1,184 @@
+package cafe.service;
+
+import cafe.dto.ScheduleChangeDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Рассылка изменений расписания по SSE. Соединение — асинхронный запрос Servlet,
+// поток на него не выделяется: события кладутся в очередь подписчика и отправляются небольшим пулом.
+// У каждого подписчика своя ограниченная очередь; клиент, который не успевает читать, отключается
+// и при переподключении перечитывает расписание — медленный клиент не задерживает остальных.
+@Service
+public class ScheduleStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleStreamService.class);
+    private static final long RECONNECT_MS = 5000;
+
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.schedule-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${app.schedule-stream.max-pending:32}")
+    private int maxPending;
+    @Value("${app.schedule-stream.send-threads:4}")
+    private int sendThreads;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        sender = Executors.newFixedThreadPool(sendThreads);
+        Gauge.builder("schedule.stream.connections", subscribers, map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Открытые SSE-подключения к потоку изменений расписания")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    public SseEmitter subscribe(Long cafeId) {
+        cafeCatalog.require(cafeId);
+        Subscriber subscriber = new Subscriber(cafeId, new SseEmitter(timeoutMs), maxPending);
+        subscribers.compute(cafeId, (id, set) -> {
+            Set<Subscriber> cafeSubscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            cafeSubscribers.add(subscriber);
+            return cafeSubscribers;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        enqueue(subscriber, SseEmitter.event().reconnectTime(RECONNECT_MS).comment("connected"));
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScheduleChanged(ScheduleChangeDto change) {
+        broadcast(change);
+    }
+
+    // Изменения с других экземпляров; после потери связи с шиной события могли пропасть —
+    // клиенты получают resync и перечитывают расписание целиком
+    @EventListener
+    public void onInvalidation(InvalidationBus.Message message) {
+        if (message.type() == InvalidationBus.Type.SCHEDULE) {
+            broadcast(message.change());
+        } else if (message.type() == InvalidationBus.Type.ALL) {
+            for (Set<Subscriber> cafeSubscribers : subscribers.values()) {
+                for (Subscriber subscriber : cafeSubscribers) {
+                    enqueue(subscriber, SseEmitter.event().name("resync").data(""));
+                }
+            }
+        }
+    }
+
+    // Не даёт прокси и балансировщикам закрыть простаивающее соединение
+    @Scheduled(fixedRateString = "${app.schedule-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> cafeSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : cafeSubscribers) {
+                if (subscriber.pending.isEmpty()) {
+                    enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+
+    private void broadcast(ScheduleChangeDto change) {
+        Set<Subscriber> cafeSubscribers = subscribers.get(change.getCafeId());
+        if (cafeSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : cafeSubscribers) {
+            enqueue(subscriber, SseEmitter.event()
+                    .name("schedule")
+                    .id(change.getMonth() + ":" + change.getVersion())
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.pending.offer(event)) {
+            logger.debug("SSE subscriber of cafe {} is too slow, disconnecting", subscriber.cafeId);
+            disconnect(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Одновременно очередь подписчика разбирает не больше одного потока
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.pending.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (Exception e) {
+                    disconnect(subscriber);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.pending.clear();
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception ignored) {
+            // соединение уже закрыто
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.cafeId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Long cafeId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long cafeId, SseEmitter emitter, int maxPending) {
+            this.cafeId = cafeId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(maxPending);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package cafe.service;
+
+import cafe.dto.ScheduleSummaryDto;
+import cafe.exception.InsufficientPermissionsException;
+import cafe.model.Role;
+import cafe.security.CurrentUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Итоги месяца по сотрудникам (schedule_summaries): одна строка на (кафе, сотрудник, месяц).
+// Сохранение расписания прибавляет к строкам разницу между старыми и новыми сменами в той же транзакции —
+// чтение итогов не зависит от объёма истории. Таблица целиком пересобирается из schedule_entries:
+// при старте, если она пуста, и по результатам плановой сверки.
+@Service
+public class ScheduleSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleSummaryService.class);
+    private static final int COUNTERS = 5;
+    private static final String WORKING_MINUTES =
+            "((extract(epoch FROM e.end_time)::int / 60 - extract(epoch FROM e.start_time)::int / 60) + 1440) % 1440";
+    // Итоги, посчитанные заново по сменам
+    private static final String ACTUAL = """
+            SELECT e.cafe_id, e.user_id, m.year, m.month,
+                   count(*) FILTER (WHERE e.status = 'WORKING') AS working_shifts,
+                   coalesce(sum(%s) FILTER (WHERE e.status = 'WORKING'), 0) AS working_minutes,
+                   count(*) FILTER (WHERE e.status = 'OFF') AS off_days,
+                   count(*) FILTER (WHERE e.status = 'VACATION') AS vacation_days,
+                   count(*) FILTER (WHERE e.status = 'SICK_LEAVE') AS sick_leave_days
+            FROM schedule_entries e
+            JOIN schedule_months m ON m.id = e.schedule_month_id
+            GROUP BY e.cafe_id, e.user_id, m.year, m.month
+            """.formatted(WORKING_MINUTES);
+    private static final String UPSERT_DELTA = """
+            INSERT INTO schedule_summaries (cafe_id, user_id, year, month,
+                working_shifts, working_minutes, off_days, vacation_days, sick_leave_days)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (cafe_id, user_id, year, month) DO UPDATE SET
+                working_shifts = schedule_summaries.working_shifts + EXCLUDED.working_shifts,
+                working_minutes = schedule_summaries.working_minutes + EXCLUDED.working_minutes,
+                off_days = schedule_summaries.off_days + EXCLUDED.off_days,
+                vacation_days = schedule_summaries.vacation_days + EXCLUDED.vacation_days,
+                sick_leave_days = schedule_summaries.sick_leave_days + EXCLUDED.sick_leave_days
+            """;
+    // Строки удаляемых сотрудников и кафе не сверяются: их смены удаляются порциями (PurgeJobService)
+    private static final String MISMATCHES = """
+            SELECT count(*)
+            FROM (%s) a
+            FULL JOIN schedule_summaries s
+                ON s.cafe_id = a.cafe_id AND s.user_id = a.user_id AND s.year = a.year AND s.month = a.month
+            JOIN users u ON u.id = coalesce(a.user_id, s.user_id)
+            JOIN cafes c ON c.id = coalesce(a.cafe_id, s.cafe_id)
+            WHERE NOT u.deleted AND NOT c.deleted
+              AND (coalesce(a.working_shifts, 0), coalesce(a.working_minutes, 0), coalesce(a.off_days, 0),
+                   coalesce(a.vacation_days, 0), coalesce(a.sick_leave_days, 0))
+                  IS DISTINCT FROM
+                  (coalesce(s.working_shifts, 0), coalesce(s.working_minutes, 0), coalesce(s.off_days, 0),
+                   coalesce(s.vacation_days, 0), coalesce(s.sick_leave_days, 0))
+            """.formatted(ACTUAL);
+    private static final String SELECT = """
+            SELECT s.cafe_id, s.user_id, u.username, u.first_name, u.last_name, u.position, s.year, s.month,
+                   s.working_shifts, s.working_minutes, s.off_days, s.vacation_days, s.sick_leave_days
+            FROM schedule_summaries s
+            JOIN users u ON u.id = s.user_id
+            WHERE NOT u.deleted AND s.working_shifts + s.off_days + s.vacation_days + s.sick_leave_days > 0 AND
+            """;
+
+    private static final RowMapper<ScheduleSummaryDto> SUMMARY_MAPPER = (rs, rowNum) -> new ScheduleSummaryDto(
+            rs.getLong("cafe_id"), rs.getLong("user_id"), rs.getString("username"), rs.getString("first_name"),
+            rs.getString("last_name"), rs.getString("position"), rs.getInt("year"), rs.getInt("month"),
+            rs.getInt("working_shifts"), rs.getInt("working_minutes"), rs.getInt("off_days"),
+            rs.getInt("vacation_days"), rs.getInt("sick_leave_days"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private CurrentUser currentUser;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.schedule-summary.repair:true}")
+    private boolean repair;
+
+    // Вызывается в транзакции сохранения месяца: before — смены до сохранения, after — после.
+    // Строки обновляются в порядке сотрудников, чтобы параллельные сохранения не ждали друг друга по кругу
+    public void apply(Long cafeId, YearMonth month, Collection<ScheduleChangeLog.Shift> before,
+                      Collection<ScheduleChangeLog.Shift> after) {
+        Map<Long, int[]> deltas = new TreeMap<>();
+        before.forEach(shift -> add(deltas, shift, -1));
+        after.forEach(shift -> add(deltas, shift, 1));
+
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((userId, delta) -> {
+            for (int value : delta) {
+                if (value != 0) {
+                    rows.add(new Object[]{cafeId, userId, month.getYear(), month.getMonthValue(),
+                            delta[0], delta[1], delta[2], delta[3], delta[4]});
+                    return;
+                }
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_DELTA, rows);
+        }
+    }
+
+    private static void add(Map<Long, int[]> deltas, ScheduleChangeLog.Shift shift, int sign) {
+        int[] delta = deltas.computeIfAbsent(shift.userId(), id -> new int[COUNTERS]);
+        switch (shift.status()) {
+            case WORKING -> {
+                delta[0] += sign;
+                int minutes = shift.endTime().toSecondOfDay() / 60 - shift.startTime().toSecondOfDay() / 60;
+                delta[1] += sign * Math.floorMod(minutes, 1440);
+            }
+            case OFF -> delta[2] += sign;
+            case VACATION -> delta[3] += sign;
+            case SICK_LEAVE -> delta[4] += sign;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduleSummaryDto> getCafeMonth(Long cafeId, YearMonth month) {
+        cafeCatalog.require(cafeId);
+        return jdbcTemplate.query(SELECT + "s.cafe_id = ? AND s.year = ? AND s.month = ? ORDER BY u.last_name, u.first_name, s.user_id",
+                SUMMARY_MAPPER, cafeId, month.getYear(), month.getMonthValue());
+    }
+
+    // Свои итоги — по всем кафе; USER_ADMIN — любого сотрудника; CAFE_ADMIN — сотрудника только в своих кафе
+    @Transactional(readOnly = true)
+    public List<ScheduleSummaryDto> getUserYear(Long userId, int year) {
+        String order = " ORDER BY s.month, s.cafe_id";
+        if (userId.equals(currentUser.id()) || currentUser.hasRole(Role.ERole.USER_ADMIN)) {
+            return jdbcTemplate.query(SELECT + "s.user_id = ? AND s.year = ?" + order, SUMMARY_MAPPER, userId, year);
+        }
+        if (!currentUser.hasRole(Role.ERole.CAFE_ADMIN)) {
+            throw new InsufficientPermissionsException("Only own summary is available");
+        }
+        Set<Long> cafeIds = currentUser.cafeIds();
+        if (cafeIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>(List.of(userId, year));
+        args.addAll(cafeIds);
+        String in = cafeIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        return jdbcTemplate.query(SELECT + "s.user_id = ? AND s.year = ? AND s.cafe_id IN (" + in + ")" + order,
+                SUMMARY_MAPPER, args.toArray());
+    }
+
+    // Смены удалённого кафе или сотрудника уже удалены порциями (PurgeJobService)
+    public void deleteByCafeId(Long cafeId) {
+        jdbcTemplate.update("DELETE FROM schedule_summaries WHERE cafe_id = ?", cafeId);
+    }
+
+    public void deleteByUserId(Long userId) {
+        jdbcTemplate.update("DELETE FROM schedule_summaries WHERE user_id = ?", userId);
+    }
+
+    // Блокировка таблицы не пускает дельты параллельных сохранений до коммита пересборки: их смены
+    // ещё не видны запросу, и дельта корректно ляжет поверх пересобранных строк. Чтение не блокируется
+    public int rebuild() {
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE schedule_summaries IN EXCLUSIVE MODE");
+            jdbcTemplate.update("DELETE FROM schedule_summaries");
+            return jdbcTemplate.update("""
+                    INSERT INTO schedule_summaries (cafe_id, user_id, year, month,
+                        working_shifts, working_minutes, off_days, vacation_days, sick_leave_days)
+                    """ + ACTUAL);
+        });
+        logger.info("Schedule summaries rebuilt: {} rows", rows);
+        return rows != null ? rows : 0;
+    }
+
+    @Transactional(readOnly = true)
+    public long countMismatches() {
+        Long count = jdbcTemplate.queryForObject(MISMATCHES, Long.class);
+        return count != null ? count : 0;
+    }
+
+    // Первый запуск на существующих данных и данные, записанные в обход сервиса (начальное заполнение)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM schedule_summaries) AND EXISTS (SELECT 1 FROM schedule_entries)",
+                Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.schedule-summary.verify-cron:0 0 4 * * *}")
+    public void verify() {
+        long mismatches = countMismatches();
+        if (mismatches == 0) {
+            logger.debug("Schedule summaries verified");
+            return;
+        }
+        meterRegistry.counter("schedule.summary.mismatches").increment(mismatches);
+        logger.warn("Schedule summaries differ from schedule entries in {} rows{}", mismatches, repair ? ", rebuilding" : "");
+        if (repair) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package cafe.service;
+
+import cafe.dto.CafeDto;
+import cafe.dto.NextShiftDto;
+import cafe.dto.ScheduleChangeDto;
+import cafe.dto.SyncBundleDto;
+import cafe.model.ScheduleEntry;
+import cafe.repository.ScheduleEntryRepository;
+import cafe.security.CurrentUser;
+import cafe.security.UserDetailsImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+// Пакет офлайн-синхронизации собирается из кэшированных частей: профиль — из токена,
+// кафе — из CafeCatalog, новости — из снимка первой страницы ленты, смены — из кэша по сотруднику.
+// Кэш смен сбрасывается событиями изменения расписания (локальными и через InvalidationBus),
+// поэтому повторный запрос не обращается к БД.
+@Service
+@Timed(value = "cafe.service", histogram = true)
+public class SyncBundleService {
+
+    public static final int DAYS = 90;
+
+    @Autowired
+    private ScheduleEntryRepository scheduleEntryRepository;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private CurrentUser currentUser;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.sync-bundle.cache-size:10000}")
+    private long cacheSize;
+    @Value("${app.sync-bundle.cache-ttl-minutes:10}")
+    private long cacheTtlMinutes;
+
+    private Cache<Long, ShiftWindow> shiftWindows;
+
+    // Смены сотрудника на DAYS дней с from; later — ближайшая рабочая смена после периода,
+    // ищется, только если в периоде нет рабочих смен в существующих кафе (laterLoaded)
+    private record ShiftWindow(LocalDate from, List<SyncBundleDto.Shift> shifts, SyncBundleDto.Shift later,
+                               boolean laterLoaded) {
+    }
+
+    // etag — хэш содержимого: одинаков на всех экземплярах и меняется только вместе с данными
+    public record Bundle(SyncBundleDto body, String etag) {
+    }
+
+    @PostConstruct
+    void init() {
+        shiftWindows = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    public Bundle getBundle() {
+        UserDetailsImpl me = currentUser.get();
+        LocalDate today = LocalDate.now();
+        ShiftWindow window = shiftWindow(me.getId(), today);
+
+        // Смены удалённых кафе отбрасываются по справочнику, не дожидаясь сброса кэша
+        List<SyncBundleDto.Shift> shifts = window.shifts().stream()
+                .filter(shift -> cafeCatalog.exists(shift.getCafeId()))
+                .toList();
+        SyncBundleDto.Shift next = shifts.stream()
+                .filter(shift -> shift.getStatus() == ScheduleEntry.Status.WORKING)
+                .findFirst()
+                .orElseGet(() -> laterShift(me.getId(), window));
+        List<CafeDto> cafes = me.getCafeIds().stream()
+                .map(cafeCatalog::findById)
+                .flatMap(Optional::stream)
+                .sorted(Comparator.comparing(CafeCatalog.Entry::id))
+                .map(cafe -> new CafeDto(cafe.id(), cafe.name(), cafe.address(), cafe.phone()))
+                .toList();
+        SyncBundleDto body = new SyncBundleDto(profile(me), cafes, today, today.plusDays(DAYS - 1), shifts,
+                next != null ? toNextShift(next, today) : null, newsService.getFeedFirstPage().page().getItems());
+        return new Bundle(body, etag(body));
+    }
+
+    static SyncBundleDto.Profile profile(UserDetailsImpl me) {
+        return new SyncBundleDto.Profile(me.getId(), me.getUsername(), me.getEmail(), me.getFirstName(), me.getLastName(),
+                me.getPosition(), me.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScheduleChanged(ScheduleChangeDto change) {
+        evict(change);
+    }
+
+    @EventListener
+    public void onInvalidation(InvalidationBus.Message message) {
+        switch (message.type()) {
+            case SCHEDULE -> evict(message.change());
+            case USER -> shiftWindows.invalidate(message.userId());
+            case ALL -> shiftWindows.invalidateAll();
+            default -> {
+            }
+        }
+    }
+
+    // userIds == null — список не передан, неизвестно, чьи смены изменились
+    private void evict(ScheduleChangeDto change) {
+        if (change.getUserIds() == null) {
+            shiftWindows.invalidateAll();
+        } else {
+            shiftWindows.invalidateAll(change.getUserIds());
+        }
+    }
+
+    // Сброс во время загрузки ждёт её окончания (Caffeine), поэтому устаревшее окно в кэше не остаётся
+    private ShiftWindow shiftWindow(Long userId, LocalDate today) {
+        ShiftWindow window = shiftWindows.get(userId, id -> loadShiftWindow(id, today));
+        if (!window.from().equals(today)) {
+            shiftWindows.invalidate(userId);
+            window = shiftWindows.get(userId, id -> loadShiftWindow(id, today));
+        }
+        return window;
+    }
+
+    // Рабочие смены периода могли оказаться в удалённых кафе: тогда ближайшая смена ищется после периода
+    // и сохраняется в окне, если его не сбросили за время поиска
+    private SyncBundleDto.Shift laterShift(Long userId, ShiftWindow window) {
+        ShiftWindow current = window;
+        if (!current.laterLoaded() || current.later() != null && !cafeCatalog.exists(current.later().getCafeId())) {
+            current = new ShiftWindow(window.from(), window.shifts(), findLater(userId, window.from()), true);
+            shiftWindows.asMap().replace(userId, window, current);
+        }
+        return current.later() != null && cafeCatalog.exists(current.later().getCafeId()) ? current.later() : null;
+    }
+
+    private ShiftWindow loadShiftWindow(Long userId, LocalDate from) {
+        LocalDate to = from.plusDays(DAYS - 1);
+        List<SyncBundleDto.Shift> shifts = scheduleEntryRepository.findShiftRowsByUserIdAndDateBetween(userId, from, to).stream()
+                .map(row -> new SyncBundleDto.Shift((Long) row[0], (LocalDate) row[1], (LocalTime) row[2], (LocalTime) row[3],
+                        (ScheduleEntry.Status) row[4]))
+                .toList();
+        boolean working = shifts.stream()
+                .anyMatch(shift -> shift.getStatus() == ScheduleEntry.Status.WORKING && cafeCatalog.exists(shift.getCafeId()));
+        return working
+                ? new ShiftWindow(from, shifts, null, false)
+                : new ShiftWindow(from, shifts, findLater(userId, from), true);
+    }
+
+    private SyncBundleDto.Shift findLater(Long userId, LocalDate from) {
+        return scheduleEntryRepository
+                .findFirst1ByUserIdAndDateGreaterThanEqualAndStatusAndCafeDeletedFalseOrderByDateAscStartTimeAsc(userId,
+                        from.plusDays(DAYS), ScheduleEntry.Status.WORKING).stream()
+                .findFirst()
+                .map(e -> new SyncBundleDto.Shift(e.getCafe().getId(), e.getDate(), e.getStartTime(), e.getEndTime(), e.getStatus()))
+                .orElse(null);
+    }
+
+    private NextShiftDto toNextShift(SyncBundleDto.Shift shift, LocalDate today) {
+        return NextShiftDto.builder()
+                .date(shift.getDate())
+                .startTime(shift.getStartTime())
+                .endTime(shift.getEndTime())
+                .cafeName(cafeCatalog.findById(shift.getCafeId()).map(CafeCatalog.Entry::name).orElse(null))
+                .daysUntil(shift.getDate().toEpochDay() - today.toEpochDay())
+                .build();
+    }
+
+    private String etag(SyncBundleDto body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to compute bundle ETag", e);
+        }
+    }
+}
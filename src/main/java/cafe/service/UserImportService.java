@@ -0,0 +1,335 @@
+package cafe.service;
+
+import cafe.dto.BulkUserResultDto;
+import cafe.dto.UserDto;
+import cafe.model.Role;
+import cafe.repository.RoleRepository;
+import cafe.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// Массовое создание пользователей (открытие нового кафе): проверка уникальности одним запросом,
+// BCrypt на отдельном ограниченном пуле вне транзакции, вставка пользователей и связей пачками.
+// Строки с ошибками пропускаются, остальные создаются — результат по каждой строке.
+@Service
+@Timed(value = "cafe.service", histogram = true)
+public class UserImportService {
+
+    public static final int MAX_ROWS = 500;
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, email, password, first_name, last_name, position, deleted) VALUES (?, ?, ?, ?, ?, ?, false)";
+    private static final List<String> CSV_COLUMNS =
+            List.of("username", "email", "password", "firstname", "lastname", "position", "roles", "cafeid");
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private CafeCatalog cafeCatalog;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${app.users.bulk.hash-threads:4}")
+    private int hashThreads;
+
+    private ExecutorService hashingPool;
+    // Роли не меняются во время работы: id загружаются один раз
+    private volatile Map<Role.ERole, Long> roleIds;
+
+    @PostConstruct
+    void startHashingPool() {
+        hashingPool = Executors.newFixedThreadPool(hashThreads);
+    }
+
+    @PreDestroy
+    void stopHashingPool() {
+        hashingPool.shutdown();
+    }
+
+    public BulkUserResultDto createUsers(List<UserDto> users) {
+        if (users == null || users.isEmpty()) throw new RuntimeException("No users to create");
+        if (users.size() > MAX_ROWS) throw new RuntimeException("Too many users in one request (max " + MAX_ROWS + ")");
+
+        List<BulkUserResultDto.Row> rows = new ArrayList<>(users.size());
+        List<Set<Long>> rowRoles = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            UserDto dto = users.get(i);
+            rows.add(new BulkUserResultDto.Row(i, dto.getUsername(), null, null, null));
+            rowRoles.add(null);
+            String error = validate(dto);
+            if (error == null) {
+                try {
+                    rowRoles.set(i, resolveRoles(dto.getRoles()));
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                fail(rows.get(i), error);
+            }
+        }
+        rejectDuplicates(users, rows);
+
+        List<Integer> valid = new ArrayList<>();
+        for (BulkUserResultDto.Row row : rows) {
+            if (row.getStatus() == null) valid.add(row.getIndex());
+        }
+        if (!valid.isEmpty()) {
+            // Хэши считаются до транзакции: соединение не занято, пока работает BCrypt
+            List<CompletableFuture<String>> hashes = valid.stream()
+                    .map(i -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(users.get(i).getPassword()), hashingPool))
+                    .toList();
+            String[] passwords = hashes.stream().map(CompletableFuture::join).toArray(String[]::new);
+            long[] ids = transactionTemplate.execute(status -> {
+                invalidationBus.publish(InvalidationBus.Message.newUsers());
+                return insert(users, valid, passwords, rowRoles);
+            });
+            // Вставка шла мимо Hibernate: закэшированный «не найден» для новых логинов надо сбросить
+            entityManagerFactory.getCache().unwrap(Cache.class).evictDefaultQueryRegion();
+            for (int k = 0; k < valid.size(); k++) {
+                BulkUserResultDto.Row row = rows.get(valid.get(k));
+                row.setId(ids[k]);
+                row.setStatus(BulkUserResultDto.Status.CREATED);
+            }
+        }
+        return new BulkUserResultDto(valid.size(), users.size() - valid.size(), rows);
+    }
+
+    public BulkUserResultDto createUsersFromCsv(String csv) {
+        return createUsers(parseCsv(csv));
+    }
+
+    private String validate(UserDto dto) {
+        if (dto.getUsername() == null || dto.getUsername().isBlank()) return "Username is required";
+        if (dto.getEmail() == null || dto.getEmail().isBlank()) return "Email is required";
+        if (dto.getPassword() == null || dto.getPassword().isBlank()) return "Password is required";
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (dto.getCafeId() != null && !cafeCatalog.exists(dto.getCafeId())) return "Cafe not found: " + dto.getCafeId();
+        return null;
+    }
+
+    private Set<Long> resolveRoles(Set<String> names) {
+        Map<Role.ERole, Long> ids = roleIds();
+        if (names == null || names.isEmpty()) {
+            return Set.of(ids.get(Role.ERole.STAFF));
+        }
+        Set<Long> result = new HashSet<>();
+        for (String name : names) {
+            Role.ERole role;
+            try {
+                role = Role.ERole.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Role not found: " + name);
+            }
+            result.add(ids.get(role));
+        }
+        return result;
+    }
+
+    private Map<Role.ERole, Long> roleIds() {
+        Map<Role.ERole, Long> ids = roleIds;
+        if (ids == null) {
+            ids = new EnumMap<>(Role.ERole.class);
+            for (Role role : roleRepository.findAll()) {
+                ids.put(role.getName(), role.getId());
+            }
+            roleIds = ids;
+        }
+        return ids;
+    }
+
+    // Повторы внутри набора и уже занятые username/email — одним запросом к БД
+    private void rejectDuplicates(List<UserDto> users, List<BulkUserResultDto.Row> rows) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (BulkUserResultDto.Row row : rows) {
+            if (row.getStatus() != null) continue;
+            UserDto dto = users.get(row.getIndex());
+            if (!usernames.add(dto.getUsername())) {
+                fail(row, "Duplicate username in request");
+            } else if (!emails.add(dto.getEmail())) {
+                fail(row, "Duplicate email in request");
+            }
+        }
+        if (usernames.isEmpty()) return;
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (Object[] taken : userRepository.findTakenUsernamesAndEmails(usernames, emails)) {
+            takenUsernames.add((String) taken[0]);
+            takenEmails.add((String) taken[1]);
+        }
+        for (BulkUserResultDto.Row row : rows) {
+            if (row.getStatus() != null) continue;
+            UserDto dto = users.get(row.getIndex());
+            if (takenUsernames.contains(dto.getUsername())) {
+                fail(row, "Username is already taken!");
+            } else if (takenEmails.contains(dto.getEmail())) {
+                fail(row, "Email is already in use!");
+            }
+        }
+    }
+
+    private long[] insert(List<UserDto> users, List<Integer> valid, String[] passwords, List<Set<Long>> rowRoles) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_USER, new String[]{"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int k) throws SQLException {
+                UserDto dto = users.get(valid.get(k));
+                ps.setString(1, dto.getUsername());
+                ps.setString(2, dto.getEmail());
+                ps.setString(3, passwords[k]);
+                ps.setString(4, dto.getFirstName());
+                ps.setString(5, dto.getLastName());
+                ps.setString(6, dto.getPosition());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return valid.size();
+            }
+        }, keys);
+        long[] ids = keys.getKeyList().stream().mapToLong(key -> ((Number) key.get("id")).longValue()).toArray();
+
+        List<Object[]> roleLinks = new ArrayList<>();
+        List<Object[]> cafeLinks = new ArrayList<>();
+        for (int k = 0; k < ids.length; k++) {
+            int i = valid.get(k);
+            for (Long roleId : rowRoles.get(i)) {
+                roleLinks.add(new Object[]{ids[k], roleId});
+            }
+            if (users.get(i).getCafeId() != null) {
+                cafeLinks.add(new Object[]{ids[k], users.get(i).getCafeId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", roleLinks);
+        if (!cafeLinks.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO user_cafes (user_id, cafe_id) VALUES (?, ?)", cafeLinks);
+        }
+        return ids;
+    }
+
+    private static void fail(BulkUserResultDto.Row row, String error) {
+        row.setStatus(BulkUserResultDto.Status.FAILED);
+        row.setError(error);
+    }
+
+    // CSV с заголовком: username,email,password,firstName,lastName,position,roles,cafeId
+    // (порядок колонок любой, обязательны username/email/password); роли через ';', значения можно брать в кавычки
+    private List<UserDto> parseCsv(String csv) {
+        if (csv == null || csv.isBlank()) throw new RuntimeException("No users to create");
+        List<String> lines = csv.lines().filter(line -> !line.isBlank()).toList();
+        List<String> header = parseCsvLine(lines.get(0)).stream().map(h -> h.trim().toLowerCase()).toList();
+        for (String column : header) {
+            if (!CSV_COLUMNS.contains(column)) throw new RuntimeException("Unknown CSV column: " + column);
+        }
+        if (lines.size() - 1 > MAX_ROWS) throw new RuntimeException("Too many users in one request (max " + MAX_ROWS + ")");
+
+        List<UserDto> users = new ArrayList<>(lines.size() - 1);
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> values = parseCsvLine(line);
+            Map<String, String> row = new HashMap<>();
+            for (int c = 0; c < header.size() && c < values.size(); c++) {
+                String value = values.get(c).trim();
+                row.put(header.get(c), value.isEmpty() ? null : value);
+            }
+            UserDto dto = new UserDto();
+            dto.setUsername(row.get("username"));
+            dto.setEmail(row.get("email"));
+            dto.setPassword(row.get("password"));
+            dto.setFirstName(row.get("firstname"));
+            dto.setLastName(row.get("lastname"));
+            dto.setPosition(row.get("position"));
+            if (row.get("roles") != null) {
+                dto.setRoles(Arrays.stream(row.get("roles").split(";"))
+                        .map(String::trim)
+                        .filter(role -> !role.isEmpty())
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
+            }
+            if (row.get("cafeid") != null) {
+                try {
+                    dto.setCafeId(Long.valueOf(row.get("cafeid")));
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("Invalid cafeId: " + row.get("cafeid"));
+                }
+            }
+            users.add(dto);
+        }
+        return users;
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    current.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(ch);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
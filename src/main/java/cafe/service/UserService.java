@@ -1,35 +1,45 @@
 package cafe.service;
 
+import cafe.dto.PurgeJobDto;
 import cafe.dto.UserDto;
+import cafe.dto.UserPageDto;
+import cafe.dto.UserSummaryDto;
 import cafe.exception.InsufficientPermissionsException;
 import cafe.exception.ResourceNotFoundException;
+import cafe.model.PurgeJob;
 import cafe.model.Role;
 import cafe.model.User;
 import cafe.repository.RoleRepository;
-import cafe.repository.ScheduleEntryRepository;
 import cafe.repository.UserRepository;
+import cafe.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class UserService {
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private RoleRepository roleRepository;
     @Autowired
-    private ScheduleEntryRepository scheduleEntryRepository;
-    @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private PurgeJobService purgeJobService;
+    @Autowired
+    private CurrentUser currentUser;
+    @Autowired
+    private InvalidationBus invalidationBus;
 
     @Transactional
     public User createUser(UserDto dto) {
@@ -61,13 +71,16 @@ public class UserService {
             }
         }
         user.setRoles(roles);
+        invalidationBus.publish(InvalidationBus.Message.newUsers());
         return userRepository.save(user);
     }
 
     @Transactional
     public User updateUser(Long id, UserDto dto) {
-        if (!isAdmin()) throw new InsufficientPermissionsException("Only USER_ADMIN can manage users");
-        User user = userRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        if (!currentUser.hasRole(Role.ERole.USER_ADMIN)) throw new InsufficientPermissionsException("Only USER_ADMIN can manage users");
+        User user = userRepository.findById(id)
+                .filter(u -> !u.isDeleted())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         if (dto.getUsername() != null && !dto.getUsername().isBlank()) {
             if (!dto.getUsername().equals(user.getUsername()) && userRepository.existsByUsername(dto.getUsername()))
@@ -91,36 +104,41 @@ public class UserService {
                     .collect(Collectors.toSet());
             user.setRoles(roles);
         }
+        invalidationBus.publish(InvalidationBus.Message.user(id));
         return userRepository.save(user);
     }
 
+    // Пользователь скрывается сразу, его смены и связи удаляет фоновое задание
     @Transactional
-    public User deleteUser(Long id) {
-        User user = userRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        scheduleEntryRepository.deleteByUserId(id);
-        userRepository.deleteById(id);
-        return user;
+    public PurgeJobDto deleteUser(Long id) {
+        User user = userRepository.findById(id)
+                .filter(u -> !u.isDeleted())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        user.setDeleted(true);
+        invalidationBus.publish(InvalidationBus.Message.user(id));
+        return purgeJobService.schedule(PurgeJob.Type.USER, id);
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
-    }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username).orElseThrow(() -> new ResourceNotFoundException("Current user not found"));
-    }
-
-    private boolean isAdmin() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication.getAuthorities().stream()
-                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("USER_ADMIN"));
+    // Страница справочника: плоская проекция + роли и кафе одним запросом на страницу
+    @Transactional(readOnly = true)
+    public UserPageDto getUserPage(Long cafeId, Role.ERole role, String position, String query, Long afterId, int limit) {
+        List<UserSummaryDto> users = userRepository.findSummaries(cafeId, role, position, query, afterId, limit + 1);
+        Long nextAfterId = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextAfterId = users.get(limit - 1).getId();
+        }
+        if (!users.isEmpty()) {
+            Map<Long, UserSummaryDto> byId = users.stream()
+                    .collect(Collectors.toMap(UserSummaryDto::getId, Function.identity()));
+            for (Object[] row : userRepository.findRoleNamesByUserIds(byId.keySet())) {
+                byId.get((Long) row[0]).getRoles().add(((Role.ERole) row[1]).name());
+            }
+            for (Object[] row : userRepository.findCafeIdsByUserIds(byId.keySet())) {
+                byId.get((Long) row[0]).getCafeIds().add((Long) row[1]);
+            }
+        }
+        return new UserPageDto(users, nextAfterId);
     }
 
-    private boolean isStaff() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication.getAuthorities().stream()
-                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("STAFF"));
-    }
 }
\ No newline at end of file
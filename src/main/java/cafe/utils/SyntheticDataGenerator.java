@@ -0,0 +1,401 @@
+package cafe.utils;
+
+import cafe.model.Role;
+import cafe.model.ScheduleEntry;
+import cafe.service.CafeCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Генератор синтетических данных для нагрузочного тестирования.
+// Включается через --app.datagen.enabled=true или профиль datagen; данные детерминированы от app.datagen.seed
+@Component
+@Order(2)
+@ConditionalOnProperty(name = "app.datagen.enabled", havingValue = "true")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    static final String CAFE_PREFIX = "Кафе #";
+    static final String USER_PREFIX = "gen_user_";
+
+    private static final String[] FIRST_NAMES = {"Анна", "Мария", "Елена", "Ольга", "Дарья", "Ксения", "Алина",
+            "Иван", "Дмитрий", "Алексей", "Сергей", "Никита", "Артём", "Максим", "Павел", "Егор"};
+    private static final String[] LAST_NAMES = {"Смирнов", "Иванов", "Кузнецов", "Попов", "Соколов", "Лебедев",
+            "Козлов", "Новиков", "Морозов", "Петров", "Волков", "Соловьёв", "Васильев", "Зайцев", "Павлов"};
+    // Должности с весами: бариста встречаются чаще всего
+    private static final String[] POSITIONS = {"Бариста", "Бариста", "Бариста", "Бариста", "Кассир", "Кассир",
+            "Повар", "Помощник повара", "Уборщик", "Старший бариста"};
+    private static final LocalTime[] SHIFT_STARTS = {LocalTime.of(8, 0), LocalTime.of(12, 0), LocalTime.of(16, 0)};
+    private static final int SHIFT_HOURS = 7;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private CafeCatalog cafeCatalog;
+
+    @Value("${app.datagen.cafes:80}")
+    private int cafeCount;
+
+    @Value("${app.datagen.users:20000}")
+    private int userCount;
+
+    @Value("${app.datagen.months:12}")
+    private int monthCount;
+
+    // Фиксированный месяц, а не текущий: при том же seed данные не зависят от даты запуска
+    @Value("${app.datagen.start-month:2025-01}")
+    private String startMonth;
+
+    @Value("${app.datagen.seed:42}")
+    private long seed;
+
+    @Value("${app.datagen.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.datagen.password:staff123}")
+    private String password;
+
+    @Value("${app.datagen.exit-when-done:false}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE username LIKE ?", Integer.class, USER_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            logger.info("Synthetic data already present ({} users), skipping generation", existing);
+        } else {
+            generate();
+        }
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void generate() {
+        long started = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+        YearMonth firstMonth = YearMonth.parse(startMonth);
+
+        long[] cafeIds = insertCafes();
+        GeneratedUsers users = assignUsers(random);
+        long[] userIds = insertUsers(users);
+        insertUserRolesAndCafes(users, userIds, cafeIds);
+        Map<Long, Long> monthIds = insertScheduleMonths(cafeIds, userIds, users, firstMonth);
+        long entries = insertScheduleEntries(users, userIds, cafeIds, monthIds, firstMonth);
+
+        logger.info("Synthetic data generated: {} cafes, {} users, {} months, {} schedule entries in {} s",
+                cafeCount, userCount, monthCount, entries, (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private long[] insertCafes() {
+        List<Object[]> rows = new ArrayList<>(cafeCount);
+        for (int c = 0; c < cafeCount; c++) {
+            rows.add(new Object[]{String.format("%s%04d", CAFE_PREFIX, c + 1),
+                    "ул. Тестовая, " + (c + 1), String.format("+7 900 %07d", c + 1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cafes (name, address, phone) VALUES (?, ?, ?)", rows);
+        cafeCatalog.markChanged();
+        return jdbcTemplate.queryForList("SELECT id FROM cafes WHERE name LIKE ? ORDER BY name",
+                Long.class, CAFE_PREFIX + "%").stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Распределение сотрудников по кафе: у кафе разный «размер», первый сотрудник кафе — менеджер,
+    // примерно каждый десятый дополнительно работает во втором кафе
+    private GeneratedUsers assignUsers(SplittableRandom random) {
+        double[] weights = new double[cafeCount];
+        double total = 0;
+        for (int c = 0; c < cafeCount; c++) {
+            weights[c] = 0.5 + random.nextDouble();
+            total += weights[c];
+        }
+        GeneratedUsers users = new GeneratedUsers(userCount);
+        boolean[] hasManager = new boolean[cafeCount];
+        for (int u = 0; u < userCount; u++) {
+            int home = u < cafeCount ? u : pickWeighted(random, weights, total);
+            users.homeCafe[u] = home;
+            users.secondCafe[u] = cafeCount > 1 && random.nextInt(10) == 0
+                    ? (home + 1 + random.nextInt(cafeCount - 1)) % cafeCount : -1;
+            users.manager[u] = !hasManager[home];
+            hasManager[home] = true;
+            users.fiveTwo[u] = random.nextBoolean();
+            users.preferredShift[u] = random.nextInt(SHIFT_STARTS.length);
+        }
+        return users;
+    }
+
+    private static int pickWeighted(SplittableRandom random, double[] weights, double total) {
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r <= 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private long[] insertUsers(GeneratedUsers users) {
+        // BCrypt считается один раз: у всех сгенерированных пользователей одинаковый пароль
+        String hash = passwordEncoder.encode(password);
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        String sql = "INSERT INTO users (username, email, password, first_name, last_name, position) VALUES (?, ?, ?, ?, ?, ?)";
+        for (int from = 0; from < userCount; from += batchSize) {
+            int to = Math.min(userCount, from + batchSize);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int u = from; u < to; u++) {
+                String username = username(u);
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                if (firstName.endsWith("а") || firstName.endsWith("я")) {
+                    lastName = lastName + "а";
+                }
+                String position = users.manager[u] ? "Менеджер кафе" : POSITIONS[random.nextInt(POSITIONS.length)];
+                rows.add(new Object[]{username, username + "@cafe.test", hash, firstName, lastName, position});
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+        long[] ids = jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? ORDER BY username",
+                Long.class, USER_PREFIX + "%").stream().mapToLong(Long::longValue).toArray();
+        logger.info("Inserted {} users", ids.length);
+        return ids;
+    }
+
+    private void insertUserRolesAndCafes(GeneratedUsers users, long[] userIds, long[] cafeIds) {
+        Map<String, Long> roleIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM roles", rs -> {
+            roleIds.put(rs.getString("name"), rs.getLong("id"));
+        });
+        long staffRole = roleIds.get(Role.ERole.STAFF.name());
+        long managerRole = roleIds.get(Role.ERole.CAFE_ADMIN.name());
+
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, userIds[i]);
+                ps.setLong(2, users.manager[i] ? managerRole : staffRole);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return userIds.length;
+            }
+        });
+
+        List<Object[]> links = new ArrayList<>(userIds.length + userIds.length / 10);
+        for (int u = 0; u < userIds.length; u++) {
+            links.add(new Object[]{userIds[u], cafeIds[users.homeCafe[u]]});
+            if (users.secondCafe[u] >= 0) {
+                links.add(new Object[]{userIds[u], cafeIds[users.secondCafe[u]]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_cafes (user_id, cafe_id) VALUES (?, ?)", links);
+    }
+
+    // Ключ (cafeIndex, monthIndex) -> id schedule_months
+    private Map<Long, Long> insertScheduleMonths(long[] cafeIds, long[] userIds, GeneratedUsers users, YearMonth firstMonth) {
+        long[] managerIds = new long[cafeCount];
+        for (int u = 0; u < userIds.length; u++) {
+            if (users.manager[u]) {
+                managerIds[users.homeCafe[u]] = userIds[u];
+            }
+        }
+        // Утверждены все месяцы, кроме последнего сгенерированного
+        YearMonth lastMonth = firstMonth.plusMonths(monthCount - 1);
+        List<Object[]> rows = new ArrayList<>(cafeCount * monthCount);
+        for (int c = 0; c < cafeCount; c++) {
+            for (int m = 0; m < monthCount; m++) {
+                YearMonth ym = firstMonth.plusMonths(m);
+                boolean approved = ym.isBefore(lastMonth);
+                rows.add(new Object[]{ym.getYear(), ym.getMonthValue(), approved, approved ? managerIds[c] : null, cafeIds[c]});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO schedule_months (year, month, approved, approved_by, cafe_id) VALUES (?, ?, ?, ?, ?) " +
+                        "ON CONFLICT (year, month, cafe_id) DO NOTHING", rows);
+
+        Map<Long, Integer> cafeIndex = new HashMap<>();
+        for (int c = 0; c < cafeIds.length; c++) {
+            cafeIndex.put(cafeIds[c], c);
+        }
+        Map<Long, Long> monthIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, cafe_id, year, month FROM schedule_months WHERE (year * 12 + month) BETWEEN ? AND ?",
+                rs -> {
+                    Integer c = cafeIndex.get(rs.getLong("cafe_id"));
+                    if (c != null) {
+                        YearMonth ym = YearMonth.of(rs.getInt("year"), rs.getInt("month"));
+                        int m = (int) (firstMonth.until(ym, ChronoUnit.MONTHS));
+                        monthIds.put(monthKey(c, m), rs.getLong("id"));
+                    }
+                }, monthOrdinal(firstMonth), monthOrdinal(lastMonth));
+        return monthIds;
+    }
+
+    private long insertScheduleEntries(GeneratedUsers users, long[] userIds, long[] cafeIds,
+                                       Map<Long, Long> monthIds, YearMonth firstMonth) {
+        EntryBatch batch = new EntryBatch(batchSize);
+        long total = 0;
+        for (int m = 0; m < monthCount; m++) {
+            YearMonth ym = firstMonth.plusMonths(m);
+            for (int u = 0; u < userIds.length; u++) {
+                SplittableRandom random = new SplittableRandom(seed ^ ((long) u << 20) ^ m);
+                // Отпуск: примерно раз в год две недели
+                int vacationStart = random.nextInt(12) == 0 ? 1 + random.nextInt(ym.lengthOfMonth()) : -1;
+                for (int day = 1; day <= ym.lengthOfMonth(); day++) {
+                    LocalDate date = ym.atDay(day);
+                    boolean secondary = users.secondCafe[u] >= 0 && day % 7 == 3;
+                    int cafe = secondary ? users.secondCafe[u] : users.homeCafe[u];
+                    ScheduleEntry.Status status = statusFor(users, u, date, vacationStart, random);
+                    if (status == ScheduleEntry.Status.OFF) {
+                        continue;
+                    }
+                    LocalTime start = status == ScheduleEntry.Status.WORKING
+                            ? SHIFT_STARTS[random.nextInt(4) == 0 ? random.nextInt(SHIFT_STARTS.length) : users.preferredShift[u]]
+                            : LocalTime.of(9, 0);
+                    batch.add(userIds[u], cafeIds[cafe], monthIds.get(monthKey(cafe, m)), date, start,
+                            start.plusHours(SHIFT_HOURS), status);
+                    if (batch.size == batchSize) {
+                        total += flush(batch);
+                    }
+                }
+            }
+            logger.info("Generated schedule for {}: {} entries so far", ym, total + batch.size);
+        }
+        total += flush(batch);
+        return total;
+    }
+
+    private static ScheduleEntry.Status statusFor(GeneratedUsers users, int u, LocalDate date,
+                                                  int vacationStart, SplittableRandom random) {
+        if (vacationStart > 0 && date.getDayOfMonth() >= vacationStart && date.getDayOfMonth() < vacationStart + 14) {
+            return ScheduleEntry.Status.VACATION;
+        }
+        boolean workDay = users.fiveTwo[u]
+                ? date.getDayOfWeek().getValue() <= 5
+                : (date.toEpochDay() + u) % 4 < 2;
+        if (!workDay) {
+            return ScheduleEntry.Status.OFF;
+        }
+        return random.nextInt(50) == 0 ? ScheduleEntry.Status.SICK_LEAVE : ScheduleEntry.Status.WORKING;
+    }
+
+    private int flush(EntryBatch batch) {
+        if (batch.size == 0) {
+            return 0;
+        }
+        int count = batch.size;
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO schedule_entries (user_id, cafe_id, schedule_month_id, date, start_time, end_time, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, batch.userIds[i]);
+                        ps.setLong(2, batch.cafeIds[i]);
+                        ps.setLong(3, batch.monthIds[i]);
+                        ps.setObject(4, batch.dates[i]);
+                        ps.setObject(5, batch.starts[i]);
+                        ps.setObject(6, batch.ends[i]);
+                        ps.setString(7, batch.statuses[i].name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+        batch.size = 0;
+        return count;
+    }
+
+    private static String username(int index) {
+        return String.format("%s%07d", USER_PREFIX, index + 1);
+    }
+
+    private static long monthKey(int cafeIndex, int monthIndex) {
+        return ((long) cafeIndex << 32) | monthIndex;
+    }
+
+    private static int monthOrdinal(YearMonth ym) {
+        return ym.getYear() * 12 + ym.getMonthValue();
+    }
+
+    private static final class GeneratedUsers {
+        final int[] homeCafe;
+        final int[] secondCafe;
+        final boolean[] manager;
+        final boolean[] fiveTwo;
+        final int[] preferredShift;
+
+        GeneratedUsers(int count) {
+            homeCafe = new int[count];
+            secondCafe = new int[count];
+            manager = new boolean[count];
+            fiveTwo = new boolean[count];
+            preferredShift = new int[count];
+        }
+    }
+
+    private static final class EntryBatch {
+        final long[] userIds;
+        final long[] cafeIds;
+        final long[] monthIds;
+        final LocalDate[] dates;
+        final LocalTime[] starts;
+        final LocalTime[] ends;
+        final ScheduleEntry.Status[] statuses;
+        int size;
+
+        EntryBatch(int capacity) {
+            userIds = new long[capacity];
+            cafeIds = new long[capacity];
+            monthIds = new long[capacity];
+            dates = new LocalDate[capacity];
+            starts = new LocalTime[capacity];
+            ends = new LocalTime[capacity];
+            statuses = new ScheduleEntry.Status[capacity];
+        }
+
+        void add(long userId, long cafeId, long monthId, LocalDate date, LocalTime start, LocalTime end,
+                 ScheduleEntry.Status status) {
+            userIds[size] = userId;
+            cafeIds[size] = cafeId;
+            monthIds[size] = monthId;
+            dates[size] = date;
+            starts[size] = start;
+            ends[size] = end;
+            statuses[size] = status;
+            size++;
+        }
+    }
+}
@@ -2,8 +2,11 @@ package cafe.utils;
 
 import cafe.model.*;
 import cafe.repository.*;
+import cafe.service.CafeCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +20,7 @@ import java.util.List;
 import java.util.Set;
 
 @Component
+@Order(1)
 public class UserDataInitializer implements CommandLineRunner {
 
     @Autowired
@@ -28,6 +32,9 @@ public class UserDataInitializer implements CommandLineRunner {
     @Autowired
     private CafeRepository cafeRepository;
 
+    @Autowired
+    private CafeCatalog cafeCatalog;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -37,13 +44,21 @@ public class UserDataInitializer implements CommandLineRunner {
     @Autowired
     private ScheduleMonthRepository scheduleMonthRepository;
 
+    // Демо-кафе, сотрудники и расписание; роли и администратор создаются всегда
+    @Value("${app.demo-data.enabled:false}")
+    private boolean demoDataEnabled;
+
     @Override
     @Transactional
     public void run(String... args) {
         createRolesIfNotExist();
-        createCafesIfNotExist();
+        if (demoDataEnabled) {
+            createCafesIfNotExist();
+        }
         createAdminUserIfNotExist();
-        createTestUsersAndScheduleIfNotExist();
+        if (demoDataEnabled) {
+            createTestUsersAndScheduleIfNotExist();
+        }
     }
 
     private void createRolesIfNotExist() {
@@ -66,6 +81,7 @@ public class UserDataInitializer implements CommandLineRunner {
             cafe2.setName("Кофе Хаус Парк");
             cafe2.setAddress("пр. Мира, 45");
             cafeRepository.save(cafe2);
+            cafeCatalog.markChanged();
 
             System.out.println("✅ Cafes created: Кофе Хаус Центр, Кофе Хаус Парк");
         }
@@ -0,0 +1,76 @@
+-- Выполняется после создания таблиц Hibernate (spring.jpa.defer-datasource-initialization=true)
+
+-- Справочник пользователей: поиск по префиксу имени/логина и фильтры по кафе и роли
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (lower(first_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_user_cafes_cafe ON user_cafes (cafe_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles (role_id, user_id);
+
+-- Лента новостей: keyset по (published_at, id)
+CREATE INDEX IF NOT EXISTS idx_news_published ON news (published_at DESC, id DESC);
+
+-- Полнотекстовый поиск по новостям: вектор пересчитывается самой БД при любой записи
+ALTER TABLE news ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('russian', coalesce(content, '')), 'B')) STORED;
+CREATE INDEX IF NOT EXISTS idx_news_search ON news USING gin (search_vector);
+
+-- Версии справочников, кэшируемых в памяти (CafeCatalog): растут в транзакции изменения
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    name    varchar(50) PRIMARY KEY,
+    version bigint      NOT NULL
+);
+INSERT INTO catalog_versions (name, version) VALUES ('cafes', 0) ON CONFLICT (name) DO NOTHING;
+
+-- Порционная очистка расписания удалённого кафе (PurgeJobService)
+CREATE INDEX IF NOT EXISTS idx_schedule_entries_cafe ON schedule_entries (cafe_id);
+
+-- Расписание месяца кафе: /api/schedule/all и /grid
+CREATE INDEX IF NOT EXISTS idx_schedule_entries_month_cafe ON schedule_entries (schedule_month_id, cafe_id);
+
+-- Смены сотрудника по датам: ближайшая смена и пакет офлайн-синхронизации
+CREATE INDEX IF NOT EXISTS idx_schedule_entries_user_date ON schedule_entries (user_id, date);
+
+-- Журнал изменений смен для синхронизации клиентов (ScheduleChangeLog): одна строка на (кафе, сотрудник, дата)
+CREATE SEQUENCE IF NOT EXISTS schedule_change_seq;
+CREATE TABLE IF NOT EXISTS schedule_changes (
+    cafe_id    bigint      NOT NULL,
+    user_id    bigint      NOT NULL,
+    entry_date date        NOT NULL,
+    seq        bigint      NOT NULL,
+    deleted    boolean     NOT NULL,
+    start_time time,
+    end_time   time,
+    status     varchar(20),
+    changed_at timestamptz NOT NULL,
+    PRIMARY KEY (cafe_id, user_id, entry_date)
+);
+CREATE INDEX IF NOT EXISTS idx_schedule_changes_cafe_seq ON schedule_changes (cafe_id, seq);
+CREATE INDEX IF NOT EXISTS idx_schedule_changes_user_seq ON schedule_changes (user_id, seq);
+CREATE INDEX IF NOT EXISTS idx_schedule_changes_tombstones ON schedule_changes (changed_at) WHERE deleted;
+DROP INDEX IF EXISTS idx_schedule_changes_deleted_seq;
+-- Кто был привязан к удалённому кафе: после очистки связей только они получают удаления его смен
+CREATE TABLE IF NOT EXISTS removed_cafe_access (
+    user_id    bigint      NOT NULL,
+    cafe_id    bigint      NOT NULL,
+    removed_at timestamptz NOT NULL,
+    PRIMARY KEY (user_id, cafe_id)
+);
+INSERT INTO catalog_versions (name, version) VALUES ('schedule-changes-horizon', 0) ON CONFLICT (name) DO NOTHING;
+
+-- Итоги месяца по сотрудникам (ScheduleSummaryService): обновляются дельтами при сохранении расписания
+CREATE TABLE IF NOT EXISTS schedule_summaries (
+    cafe_id         bigint  NOT NULL,
+    user_id         bigint  NOT NULL,
+    year            integer NOT NULL,
+    month           integer NOT NULL,
+    working_shifts  integer NOT NULL,
+    working_minutes integer NOT NULL,
+    off_days        integer NOT NULL,
+    vacation_days   integer NOT NULL,
+    sick_leave_days integer NOT NULL,
+    PRIMARY KEY (cafe_id, user_id, year, month)
+);
+CREATE INDEX IF NOT EXISTS idx_schedule_summaries_user_year ON schedule_summaries (user_id, year);
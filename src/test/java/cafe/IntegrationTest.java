@@ -0,0 +1,55 @@
+package cafe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Приложение целиком на тестовой базе PostgreSQL (application-test.properties) с демо-данными
+// и принудительным бюджетом SQL-запросов
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class IntegrationTest {
+
+    private static final Pattern STATEMENTS = Pattern.compile("desc=\"(\\d+) statements\"");
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    protected String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("username", username, "password", password))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return "Bearer " + objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    // Число SQL-запросов запроса из заголовка Server-Timing (db;desc="N statements")
+    protected static int statements(MvcResult result) {
+        String serverTiming = result.getResponse().getHeader("Server-Timing");
+        if (serverTiming == null) {
+            throw new AssertionError("No Server-Timing header");
+        }
+        Matcher matcher = STATEMENTS.matcher(serverTiming);
+        if (!matcher.find()) {
+            throw new AssertionError("No statement count in Server-Timing: " + serverTiming);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+}
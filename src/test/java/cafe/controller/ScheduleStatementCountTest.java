@@ -0,0 +1,52 @@
+package cafe.controller;
+
+import cafe.IntegrationTest;
+import cafe.repository.CafeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Кэш второго уровня: пользователь, его роли и кафе для JWT-фильтра и проверки доступа не читаются из БД
+class ScheduleStatementCountTest extends IntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Test
+    void myScheduleSkipsUserLookupsWithWarmCache() throws Exception {
+        String token = login("barista1", "staff123");
+        Long cafeId = cafeRepository.findAll().stream()
+                .filter(cafe -> cafe.getName().equals("Кофе Хаус Центр"))
+                .findFirst().orElseThrow().getId();
+        String month = LocalDate.now().withDayOfMonth(1).toString();
+
+        // Справочник кафе в памяти и прочие локальные кэши прогреваются первым запросом;
+        // затем сбрасывается только кэш второго уровня Hibernate
+        perform(token, month, cafeId);
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegions();
+
+        // Без кэша: пользователь (запрос findByUsername), его роль и кафе читаются из БД, затем месяц и смены
+        assertThat(statements(perform(token, month, cafeId))).isEqualTo(5);
+        // С кэшем остаются только месяц и смены
+        assertThat(statements(perform(token, month, cafeId))).isEqualTo(2);
+    }
+
+    private MvcResult perform(String token, String month, Long cafeId) throws Exception {
+        return mockMvc.perform(get("/api/schedule/my").header("Authorization", token)
+                        .param("month", month).param("cafeId", cafeId.toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
@@ -0,0 +1,80 @@
+package cafe.controller;
+
+import cafe.IntegrationTest;
+import cafe.repository.CafeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Массовое создание с привязкой к кафе укладывается в @StatementBudget (бюджет в тестах принудительный)
+class UserBulkImportStatementBudgetTest extends IntegrationTest {
+
+    private static final String PREFIX = "bulk-budget-test-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @AfterEach
+    void cleanUp() {
+        String users = "SELECT id FROM users WHERE username LIKE '" + PREFIX + "%'";
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM user_cafes WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    void importWithCafesStaysWithinBudget() throws Exception {
+        String token = login("admin", "admin123");
+        Long cafeId = cafeRepository.findAll().get(0).getId();
+
+        // Первый вызов может ещё загружать роли и справочник кафе — он лишь не должен выйти за бюджет
+        importUsers(token, cafeId, "0");
+        // Дальше: вызывающий перечитывается (импорт сбросил кэш запросов) + 5 запросов самого импорта
+        assertThat(statements(importUsers(token, cafeId, "1"))).isEqualTo(6);
+        assertThat(statements(importUsers(token, cafeId, "2"))).isEqualTo(6);
+    }
+
+    @Test
+    void csvImportWithCafesStaysWithinBudget() throws Exception {
+        String token = login("admin", "admin123");
+        Long cafeId = cafeRepository.findAll().get(0).getId();
+        String csv = "username,email,password,firstName,lastName,position,roles,cafeId\n"
+                + PREFIX + "csv," + PREFIX + "csv@cafe.com,secret123,Тест,Тестов,Бариста,STAFF," + cafeId + "\n";
+
+        mockMvc.perform(post("/api/users/bulk").header("Authorization", token)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
+    private MvcResult importUsers(String token, Long cafeId, String run) throws Exception {
+        List<Map<String, Object>> users = List.of(user(run + "a", cafeId), user(run + "b", cafeId));
+        return mockMvc.perform(post("/api/users/bulk").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(users)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andReturn();
+    }
+
+    private static Map<String, Object> user(String suffix, Long cafeId) {
+        return Map.of("username", PREFIX + suffix, "email", PREFIX + suffix + "@cafe.com", "password", "secret123",
+                "firstName", "Тест", "lastName", "Тестов", "position", "Бариста",
+                "roles", List.of("STAFF"), "cafeId", cafeId);
+    }
+}
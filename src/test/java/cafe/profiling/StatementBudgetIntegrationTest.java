@@ -0,0 +1,78 @@
+package cafe.profiling;
+
+import cafe.IntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Принудительный бюджет: запрос сверх @StatementBudget не выполняется, и запись откатывается до коммита —
+// клиент не получает 500 за уже сохранённые данные
+@Import(StatementBudgetIntegrationTest.BudgetTestController.class)
+class StatementBudgetIntegrationTest extends IntegrationTest {
+
+    private static final String NAME_PREFIX = "statement-budget-test-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM catalog_versions WHERE name LIKE ?", NAME_PREFIX + "%");
+    }
+
+    @Test
+    @WithMockUser
+    void writeWithinBudgetIsCommitted() throws Exception {
+        mockMvc.perform(post("/test/statement-budget").param("rows", "2"))
+                .andExpect(status().isOk());
+
+        assertThat(countRows()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser
+    void writeOverBudgetIsRolledBack() throws Exception {
+        mockMvc.perform(post("/test/statement-budget").param("rows", "3"))
+                .andExpect(status().isInternalServerError());
+
+        assertThat(countRows()).isZero();
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_versions WHERE name LIKE ?",
+                Integer.class, NAME_PREFIX + "%");
+    }
+
+    @TestConfiguration
+    @RestController
+    static class BudgetTestController {
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @StatementBudget(2)
+        @PostMapping("/test/statement-budget")
+        public void insert(@RequestParam int rows) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < rows; i++) {
+                    jdbcTemplate.update("INSERT INTO catalog_versions (name, version) VALUES (?, 0)", NAME_PREFIX + i);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package cafe.service;
+
+import cafe.IntegrationTest;
+import cafe.dto.ScheduleChangesDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Удаления смен очищенного кафе получают только те администраторы, что были к нему привязаны
+class ScheduleChangeLogTest extends IntegrationTest {
+
+    private static final long PURGED_CAFE = 900_001L;
+    private static final long OTHER_PURGED_CAFE = 900_002L;
+    private static final long LINKED_ADMIN = 900_101L;
+    private static final long OTHER_ADMIN = 900_102L;
+    private static final long EMPLOYEE = 900_201L;
+
+    @Autowired
+    private ScheduleChangeLog scheduleChangeLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        for (long cafeId : new long[]{PURGED_CAFE, OTHER_PURGED_CAFE}) {
+            jdbcTemplate.update("""
+                    INSERT INTO schedule_changes (cafe_id, user_id, entry_date, seq, deleted, changed_at)
+                    VALUES (?, ?, current_date, nextval('schedule_change_seq'), true, now())
+                    """, cafeId, EMPLOYEE);
+        }
+        jdbcTemplate.update("INSERT INTO removed_cafe_access (user_id, cafe_id, removed_at) VALUES (?, ?, now())",
+                LINKED_ADMIN, PURGED_CAFE);
+        jdbcTemplate.update("INSERT INTO removed_cafe_access (user_id, cafe_id, removed_at) VALUES (?, ?, now())",
+                OTHER_ADMIN, OTHER_PURGED_CAFE);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM schedule_changes WHERE cafe_id IN (?, ?)", PURGED_CAFE, OTHER_PURGED_CAFE);
+        jdbcTemplate.update("DELETE FROM removed_cafe_access WHERE user_id IN (?, ?)", LINKED_ADMIN, OTHER_ADMIN);
+    }
+
+    @Test
+    void tombstonesOfPurgedCafeGoOnlyToItsFormerAdmins() {
+        assertThat(cafeIdsOfChanges(LINKED_ADMIN, Set.of())).containsExactly(PURGED_CAFE);
+        assertThat(cafeIdsOfChanges(OTHER_ADMIN, Set.of(1L))).doesNotContain(PURGED_CAFE).contains(OTHER_PURGED_CAFE);
+        assertThat(cafeIdsOfChanges(EMPLOYEE, Set.of())).isEmpty();
+    }
+
+    private List<Long> cafeIdsOfChanges(long userId, Set<Long> cafeIds) {
+        ScheduleChangesDto changes = scheduleChangeLog.changesForCafes(userId, cafeIds, 0, 1000);
+        return changes.getChanges().stream()
+                .map(ScheduleChangesDto.Change::getCafeId)
+                .filter(id -> id >= PURGED_CAFE)
+                .toList();
+    }
+}